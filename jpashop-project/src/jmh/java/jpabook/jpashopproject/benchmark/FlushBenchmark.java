@@ -0,0 +1,45 @@
+package jpabook.jpashopproject.benchmark;
+
+import jpabook.jpashopproject.domain.DeliveryStatus;
+import jpabook.jpashopproject.domain.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.List;
+
+/**
+ * 영속성 컨텍스트의 엔티티 수에 따른 flush 비용 (주문 + 회원 + 배송, orders * 3개 정도)
+ * flush = load_flush - load
+ * 바이트코드 향상 전후 비교: ./gradlew jmh -PhibernateEnhance=false
+ * 향상 x -> 모든 엔티티를 스냅샷과 필드 단위로 비교 / 향상 o -> 바뀐 엔티티만 확인
+ * 변경은 롤백 -> 반복해도 데이터는 그대로
+ */
+public class FlushBenchmark {
+
+    @Benchmark
+    public int load(OrderBenchmarkState s) {
+        return s.readWrite.execute(status -> {
+            List<Order> orders = findOrders(s);
+            status.setRollbackOnly();
+            return orders.size();
+        });
+    }
+
+    @Benchmark
+    public int load_flush(OrderBenchmarkState s) {
+        return s.readWrite.execute(status -> {
+            List<Order> orders = findOrders(s);
+            orders.get(0).getDelivery().setStatus(DeliveryStatus.COMP);
+            s.em.flush();
+            status.setRollbackOnly();
+            return orders.size();
+        });
+    }
+
+    private List<Order> findOrders(OrderBenchmarkState s) {
+        return s.em.createQuery(
+                        "select o from Order o" +
+                                " join fetch o.member m" +
+                                " join fetch o.delivery d", Order.class)
+                .getResultList();
+    }
+}
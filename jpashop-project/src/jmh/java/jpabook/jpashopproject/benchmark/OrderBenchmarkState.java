@@ -0,0 +1,139 @@
+package jpabook.jpashopproject.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashopproject.JpashopProjectApplication;
+import jpabook.jpashopproject.api.OrderApiController;
+import jpabook.jpashopproject.api.OrderSimpleApiController;
+import jpabook.jpashopproject.domain.Address;
+import jpabook.jpashopproject.domain.Delivery;
+import jpabook.jpashopproject.domain.Member;
+import jpabook.jpashopproject.domain.Order;
+import jpabook.jpashopproject.domain.OrderItem;
+import jpabook.jpashopproject.domain.item.Book;
+import jpabook.jpashopproject.repository.order.query.OrderQueryJdbcRepository;
+import jpabook.jpashopproject.repository.order.simplequery.OrderSimpleQueryJdbcRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 인메모리 H2에 주문 orders 개를 채운 애플리케이션 컨텍스트
+ * 회원 1명당 주문 10개, 주문 1개당 상품 2개 (상품은 100종류)
+ * 2차 캐시, 쿼리 캐시, SQL 로그는 끔 -> 조회 방식 자체의 비용만 측정
+ */
+@State(Scope.Benchmark)
+public class OrderBenchmarkState {
+
+    private static final int ITEM_COUNT = 100;
+    private static final int ORDERS_PER_MEMBER = 10;
+    private static final int SEED_CHUNK = 1000;
+
+    @Param({"100", "1000", "10000"})
+    public int orders;
+
+    ConfigurableApplicationContext context;
+    OrderApiController orderApi;
+    OrderSimpleApiController orderSimpleApi;
+    OrderQueryJdbcRepository orderQueryJdbcRepository;
+    OrderSimpleQueryJdbcRepository orderSimpleQueryJdbcRepository;
+    ObjectMapper objectMapper;
+
+    // 웹 요청이 아니므로 OSIV가 없음 -> lazy 로딩, 직렬화까지 읽기 전용 트랜잭션 안에서 실행
+    TransactionTemplate readOnly;
+    // flush 측정용 (FlushBenchmark)
+    TransactionTemplate readWrite;
+    EntityManager em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpashopProjectApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.org.hibernate.SQL=warn")
+                .run();
+
+        orderApi = context.getBean(OrderApiController.class);
+        orderSimpleApi = context.getBean(OrderSimpleApiController.class);
+        orderQueryJdbcRepository = context.getBean(OrderQueryJdbcRepository.class);
+        orderSimpleQueryJdbcRepository = context.getBean(OrderSimpleQueryJdbcRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        em = context.getBean(EntityManager.class);
+
+        seed(readWrite, em);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed(TransactionTemplate tx, EntityManager em) {
+        List<Long> itemIds = tx.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                Book book = new Book();
+                book.setName("book" + i);
+                book.setPrice(10000 + i * 100);
+                book.setStockQuantity(Integer.MAX_VALUE);
+                em.persist(book);
+                ids.add(book.getId());
+            }
+            return ids;
+        });
+
+        for (int from = 0; from < orders; from += SEED_CHUNK) {
+            int start = from;
+            int end = Math.min(from + SEED_CHUNK, orders);
+
+            tx.executeWithoutResult(status -> {
+                Member member = null;
+                for (int i = start; i < end; i++) {
+                    if (member == null || i % ORDERS_PER_MEMBER == 0) {
+                        member = new Member();
+                        member.setName("member" + i / ORDERS_PER_MEMBER);
+                        member.setAddress(new Address("city" + i % 17, "street" + i, "zip" + i % 1000));
+                        em.persist(member);
+                    }
+
+                    Delivery delivery = new Delivery();
+                    delivery.setAddress(member.getAddress());
+
+                    Book book1 = em.find(Book.class, itemIds.get(i % ITEM_COUNT));
+                    Book book2 = em.find(Book.class, itemIds.get((i + 1) % ITEM_COUNT));
+
+                    em.persist(Order.createOrder(member, delivery,
+                            OrderItem.createOrderItem(book1, book1.getPrice(), 1),
+                            OrderItem.createOrderItem(book2, book2.getPrice(), 2)));
+                }
+
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package jpabook.jpashopproject.benchmark;
+
+import jpabook.jpashopproject.api.OrderApiController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * 주문 조회 방식별 비교 (repository + DTO 변환 + JSON 직렬화)
+ * 실행: ./gradlew jmh  (처리량, 지연시간 백분위, -prof gc 로 op당 할당량)
+ * 페이징 API는 전체 주문을 끝까지 읽음
+ * - v3.1, v3.2: API의 페이지 크기 상한(1000)만큼씩 여러 요청 -> 요청(트랜잭션)마다 JSON 응답 하나, 응답 크기 합계를 반환
+ * - v3.3: 상한이 없는 연동용 -> 한 페이지에 limit = orders
+ */
+public class OrderFetchBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    // ===== OrderSimpleApiController (주문 + 회원 + 배송) =====
+
+    @Benchmark
+    public byte[] simpleV1_entity(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderSimpleApi.orderV1()));
+    }
+
+    @Benchmark
+    public byte[] simpleV2_lazyDto(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderSimpleApi.ordersV2()));
+    }
+
+    @Benchmark
+    public byte[] simpleV3_fetchJoin(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderSimpleApi.ordersV3()));
+    }
+
+    @Benchmark
+    public byte[] simpleV4_dtoQuery(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderSimpleApi.ordersV4()));
+    }
+
+    @Benchmark
+    public byte[] simpleV4_jdbc(OrderBenchmarkState s) {
+        return json(s, s.orderSimpleQueryJdbcRepository.findOrderDtos());
+    }
+
+    // ===== OrderApiController (주문 + 회원 + 배송 + 주문상품 + 상품) =====
+
+    @Benchmark
+    public byte[] v1_entity(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderApi.ordersV1()));
+    }
+
+    @Benchmark
+    public byte[] v2_lazyDtoBatchFetch(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderApi.ordersV2()));
+    }
+
+    @Benchmark
+    public byte[] v3_fetchJoin(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderApi.ordersV3()));
+    }
+
+    @Benchmark
+    public long v3_1_pagedFetchJoin(OrderBenchmarkState s) {
+        long bytes = 0;
+        int[] read = {0};
+        int offset = 0;
+        do {
+            int from = offset;
+            bytes += s.readOnly.execute(status -> {
+                List<?> page = s.orderApi.ordersV3_page(from, PAGE_SIZE);
+                read[0] = page.size();
+                return json(s, page);
+            }).length;
+            offset += read[0];
+        } while (read[0] == PAGE_SIZE);
+        return bytes;
+    }
+
+    @Benchmark
+    public long v3_2_keyset(OrderBenchmarkState s) {
+        long bytes = 0;
+        String[] next = {null};
+        do {
+            String after = next[0];
+            bytes += s.readOnly.execute(status -> {
+                OrderApiController.CursorResult<?> page = s.orderApi.ordersV3_cursor(after, PAGE_SIZE);
+                next[0] = page.getNext();
+                return json(s, page);
+            }).length;
+        } while (next[0] != null);
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] v3_3_jdbcToJson(OrderBenchmarkState s) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        s.orderApi.ordersV3_stream(null, s.orders, response);
+        return response.getContentAsByteArray();
+    }
+
+    @Benchmark
+    public byte[] v4_dtoQuery(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderApi.ordersV4()));
+    }
+
+    @Benchmark
+    public byte[] v5_dtoQueryIn(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderApi.ordersV5()));
+    }
+
+    @Benchmark
+    public byte[] v5_jdbc(OrderBenchmarkState s) {
+        return json(s, s.orderQueryJdbcRepository.findAllByDto_optimization());
+    }
+
+    @Benchmark
+    public byte[] v5_1_chunkedIn(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderApi.ordersV5_1()));
+    }
+
+    @Benchmark
+    public byte[] v6_flatJoin(OrderBenchmarkState s) {
+        return s.readOnly.execute(status -> json(s, s.orderApi.ordersV6()));
+    }
+
+    private static byte[] json(OrderBenchmarkState s, Object result) {
+        try {
+            return s.objectMapper.writeValueAsBytes(result);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -4,13 +4,16 @@ import jpabook.jpashopproject.domain.*;
 import jpabook.jpashopproject.domain.item.Book;
 import jpabook.jpashopproject.service.OrderService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 
+// 대량 데이터 생성(SyntheticDataGenerator)을 사용하면 실행하지 않음
 @Component
+@ConditionalOnProperty(name = "jpashop.data-generator.enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 public class InitDb {
 
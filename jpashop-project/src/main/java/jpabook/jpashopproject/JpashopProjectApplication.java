@@ -1,10 +1,16 @@
 package jpabook.jpashopproject;
 
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.ThreadPoolExecutor;
+
+@EnableScheduling
 @SpringBootApplication
 public class JpashopProjectApplication {
 
@@ -17,4 +23,18 @@ public class JpashopProjectApplication {
 	public Hibernate5Module hibernate5Module() {
 		return new Hibernate5Module();
 	}
+
+	// 주문 조회를 나눠서 동시에 실행할 스레드 풀 (OrderQueryRepository.findAllByDto_chunked)
+	// 큐가 가득 차면 요청 스레드에서 직접 실행 -> 스레드, 커넥션이 무한히 늘어나지 않음
+	// 요청 스레드는 커넥션을 잡지 않은 채로 기다림 -> 작업 스레드는 항상 커넥션을 얻을 수 있음
+	@Bean(destroyMethod = "shutdown")
+	public ThreadPoolTaskExecutor orderQueryExecutor(@Value("${jpashop.order-query.parallelism:4}") int parallelism) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(parallelism);
+		executor.setMaxPoolSize(parallelism);
+		executor.setQueueCapacity(parallelism * 16);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.setThreadNamePrefix("order-query-");
+		return executor;
+	}
 }
@@ -0,0 +1,107 @@
+package jpabook.jpashopproject.api;
+
+import jpabook.jpashopproject.domain.item.Item;
+import jpabook.jpashopproject.repository.ItemCacheEventListener;
+import jpabook.jpashopproject.repository.ItemRepository;
+import jpabook.jpashopproject.repository.order.simplequery.OrderSimpleQueryRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+
+// 캐시 크기를 정하기 위한 통계 (jpashop.hibernate-statistics=true 로 실행해야 함)
+@RestController
+@RequiredArgsConstructor
+public class CacheStatisticsApiController {
+
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/api/stats/item-cache")
+    public ItemCacheStats itemCacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        return new ItemCacheStats(
+                statistics.isStatisticsEnabled(),
+                RegionStats.of(Item.class.getName(), entityRegion(statistics)),
+                RegionStats.of(ItemRepository.ITEM_QUERY_REGION, statistics.getQueryRegionStatistics(ItemRepository.ITEM_QUERY_REGION)),
+                ItemCacheEventListener.getEvictions(),
+                ItemCacheEventListener.getExpirations());
+    }
+
+    @GetMapping("/api/stats/order-summary-cache")
+    public RegionStats orderSummaryCacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        String region = OrderSimpleQueryRepository.ORDER_SUMMARY_REGION;
+
+        return RegionStats.of(region, statistics.getQueryRegionStatistics(region));
+    }
+
+    // 쿼리 플랜 캐시 (JPQL -> SQL 변환 결과) 적중률
+    @GetMapping("/api/stats/query-plan-cache")
+    public QueryPlanCacheStats queryPlanCacheStats() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        long hit = statistics.getQueryPlanCacheHitCount();
+        long miss = statistics.getQueryPlanCacheMissCount();
+        double hitRate = hit + miss == 0 ? 0 : (double) hit / (hit + miss);
+
+        return new QueryPlanCacheStats(statistics.isStatisticsEnabled(), hit, miss, hitRate);
+    }
+
+    // 2차 캐시를 사용하지 않으면 영역이 없음
+    private CacheRegionStatistics entityRegion(Statistics statistics) {
+        try {
+            return statistics.getDomainDataRegionStatistics(Item.class.getName());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ItemCacheStats {
+        private boolean statisticsEnabled;
+        private RegionStats entity;
+        private RegionStats query;
+        private long evictions;
+        private long expirations;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class QueryPlanCacheStats {
+        // false면 통계를 모으지 않음 -> 0은 적중이 없다는 뜻이 아님
+        private boolean statisticsEnabled;
+        private long hitCount;
+        private long missCount;
+        private double hitRate;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RegionStats {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long elementCountInMemory;
+
+        static RegionStats of(String region, CacheRegionStatistics statistics) {
+            if (statistics == null) {
+                return null;
+            }
+
+            return new RegionStats(region,
+                    statistics.getHitCount(),
+                    statistics.getMissCount(),
+                    statistics.getPutCount(),
+                    statistics.getElementCountInMemory());
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package jpabook.jpashopproject.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jpabook.jpashopproject.domain.*;
 import jpabook.jpashopproject.repository.OrderRepository;
 import jpabook.jpashopproject.repository.order.query.OrderQueryDto;
+import jpabook.jpashopproject.repository.order.query.OrderQueryJdbcRepository;
 import jpabook.jpashopproject.repository.order.query.OrderQueryRepository;
+import jpabook.jpashopproject.service.BulkOrderRequest;
+import jpabook.jpashopproject.service.BulkOrderResult;
+import jpabook.jpashopproject.service.OrderService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,6 +37,16 @@ public class OrderApiController {
 
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderQueryJdbcRepository orderQueryJdbcRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    // v5 조회 방식 (jpql, jdbc)
+    @Value("${jpashop.query-mode.orders-v5:jpql}")
+    private String v5QueryMode;
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
 
     @GetMapping("/api/v1/orders")
     public List<Order> ordersV1() {
@@ -75,6 +102,80 @@ public class OrderApiController {
         return result;
     }
 
+    // 쿼리 3번, 키셋 페이징
+    // offset 페이징은 뒤 페이지로 갈수록 느려짐 -> 마지막으로 읽은 주문 다음부터 조회
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult<List<OrderDto>> ordersV3_cursor(
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit은 1 ~ " + MAX_PAGE_SIZE + " 사이여야 합니다. limit = " + limit);
+        }
+
+        OrderCursor cursor = null;
+        if (after != null) {
+            try {
+                cursor = OrderCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+
+        List<Order> all = orderRepository.findAllWithMemberDeliveryAfter(cursor, limit);
+
+        List<OrderDto> result = all.stream()
+                .map(o -> new OrderDto(o))
+                .collect(Collectors.toList());
+
+        // 마지막 페이지면 next = null
+        String next = all.isEmpty() || all.size() < limit
+                ? null
+                : OrderCursor.of(all.get(all.size() - 1)).encode();
+
+        return new CursorResult<>(result, next);
+    }
+
+    // v3.2와 같은 응답 -> 엔티티, DTO를 거치지 않고 JDBC 결과를 바로 JSON으로 씀 (페이지 크기가 큰 연동용)
+    @GetMapping(value = "/api/v3.3/orders", produces = "application/json")
+    public void ordersV3_stream(
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            HttpServletResponse response) throws IOException {
+
+        // 페이지 크기가 큰 연동용 -> 상한은 두지 않음
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit은 1 이상이어야 합니다. limit = " + limit);
+        }
+
+        OrderCursor cursor = null;
+        if (after != null) {
+            try {
+                cursor = OrderCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // 중간에 실패하면 닫히지 않은 JSON으로 끝나야 함
+            // 자동으로 닫으면 next 없는 정상 응답(= 마지막 페이지)으로 보여서 클라이언트가 나머지 주문을 잃어버림
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("data");
+
+            OrderCursor next = orderQueryJdbcRepository.writeOrdersAfter(cursor, limit, EXPORT_FETCH_SIZE, generator);
+
+            generator.writeEndArray();
+            generator.writeStringField("next", next == null ? null : next.encode());
+            generator.writeEndObject();
+        }
+    }
+
     @GetMapping("api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
         return orderQueryRepository.findOrderQueryDtos();
@@ -82,9 +183,65 @@ public class OrderApiController {
 
     @GetMapping("api/v5/orders")
     public List<OrderQueryDto> ordersV5() {
+        if ("jdbc".equals(v5QueryMode)) {
+            return orderQueryJdbcRepository.findAllByDto_optimization();
+        }
         return orderQueryRepository.findAllByDto_optimization();
     }
 
+    // v5와 같은 결과 -> in 절을 chunk로 나눠서 동시에 조회
+    @GetMapping("api/v5.1/orders")
+    public List<OrderQueryDto> ordersV5_1() {
+        return orderQueryRepository.findAllByDto_chunked();
+    }
+
+    // 쿼리 한번 (flat 조인) -> 메모리에서 주문별로 묶음
+    @GetMapping("api/v6/orders")
+    public List<OrderQueryDto> ordersV6() {
+        return orderQueryRepository.findAllByDto_flat(EXPORT_FETCH_SIZE);
+    }
+
+    // 전체 주문 export
+    // v4, v5는 List<OrderQueryDto>를 전부 메모리에 만든 뒤 직렬화 -> 주문이 많으면 OOM
+    // => 커서로 한 주문씩 읽어서 바로 응답에 한 줄씩 씀 (NDJSON)
+    @GetMapping(value = "api/v5/orders/ndjson", produces = "application/x-ndjson")
+    public void ordersV5_ndjson(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+
+        // 주문마다 flush 하면 응답이 잘게 쪼개져서 나감 -> 버퍼가 찰 때만 내보냄
+        ObjectWriter writer = objectMapper.writerFor(OrderQueryDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // 주문을 쓰는 중에 실패하면 그 줄은 깨진 채로 끝나야 함 (자동으로 닫으면 필드가 빠진 정상 줄처럼 보임)
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.setRootValueSeparator(null);
+
+            orderQueryRepository.streamOrderQueryDtos(EXPORT_FETCH_SIZE, o -> {
+                try {
+                    writer.writeValue(generator, o);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // 대량 주문 (B2B) -> 주문별로 성공 / 실패를 돌려줌
+    @PostMapping("/api/v1/orders/bulk")
+    public List<BulkOrderResult> orderBulk(@RequestBody List<BulkOrderRequest> requests) {
+        return orderService.orderBulk(requests);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class CursorResult<T> {
+        private T data;
+        private String next;
+    }
+
     @Data
     static class OrderDto {
 
@@ -92,6 +249,7 @@ public class OrderApiController {
         private String name;
         private LocalDateTime orderDate;
         private OrderStatus orderStatus;
+        private int totalPrice;
         private Address address;
         private List<OrderItemDto> orderItems;
 
@@ -100,6 +258,7 @@ public class OrderApiController {
             name = order.getMember().getName(); // lazy 조회
             orderDate = order.getOrderDate();
             orderStatus = order.getStatus();
+            totalPrice = order.getTotalPrice();
             address = order.getDelivery().getAddress(); // lazy 조회
             orderItems = order.getOrderItems().stream()
                     .map(oi -> new OrderItemDto(oi))
@@ -4,8 +4,10 @@ import jpabook.jpashopproject.domain.*;
 import jpabook.jpashopproject.repository.OrderRepository;
 import jpabook.jpashopproject.repository.order.simplequery.OrderSimpleQueryRepository;
 import jpabook.jpashopproject.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashopproject.repository.order.simplequery.OrderSimpleQueryJdbcRepository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -18,6 +20,11 @@ public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderSimpleQueryJdbcRepository orderSimpleQueryJdbcRepository;
+
+    // v4 조회 방식 (jpql: 쿼리 캐시 사용, jdbc: SQL 직접 실행)
+    @Value("${jpashop.query-mode.simple-orders-v4:jpql}")
+    private String v4QueryMode;
 
     @GetMapping("api/v1/simple-orders")
     public List<Order> orderV1() {
@@ -61,6 +68,9 @@ public class OrderSimpleApiController {
     // 필요한 데이터만 골라서 쿼리 날림
     @GetMapping("api/v4/simple-orders")
     public List<OrderSimpleQueryDto> ordersV4() {
+        if ("jdbc".equals(v4QueryMode)) {
+            return orderSimpleQueryJdbcRepository.findOrderDtos();
+        }
         return orderSimpleQueryRepository.findOrderDtos();
     }
 }
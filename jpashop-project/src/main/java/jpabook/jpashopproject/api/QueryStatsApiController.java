@@ -0,0 +1,21 @@
+package jpabook.jpashopproject.api;
+
+import jpabook.jpashopproject.monitoring.EndpointQueryStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// 엔드포인트별 쿼리 수, 로딩한 엔티티/컬렉션 수, flush/커넥션 시간, N + 1 의심 SQL
+@RestController
+@RequiredArgsConstructor
+public class QueryStatsApiController {
+
+    private final EndpointQueryStats endpointQueryStats;
+
+    @GetMapping("/api/stats/queries")
+    public Map<String, EndpointQueryStats.Summary> queryStats() {
+        return endpointQueryStats.summaries();
+    }
+}
@@ -0,0 +1,61 @@
+package jpabook.jpashopproject.api;
+
+import jpabook.jpashopproject.repository.report.DailySalesDto;
+import jpabook.jpashopproject.repository.report.ItemSalesDto;
+import jpabook.jpashopproject.repository.report.MemberSpendDto;
+import jpabook.jpashopproject.service.SalesReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// 판매 리포트 -> 집계 테이블만 읽음 (기간의 일 수, 상품 수만큼)
+@RestController
+@RequiredArgsConstructor
+public class SalesReportApiController {
+
+    private final SalesReportService salesReportService;
+
+    private static final int MAX_TOP_SELLERS = 100;
+
+    // 기간 내 판매 수량 상위 상품 (from, to 포함)
+    @GetMapping("/api/reports/top-sellers")
+    public List<ItemSalesDto> topSellers(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+
+        if (limit < 1 || limit > MAX_TOP_SELLERS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit은 1 ~ " + MAX_TOP_SELLERS + " 사이여야 합니다. limit = " + limit);
+        }
+
+        return salesReportService.findTopSellers(from, to, limit);
+    }
+
+    @GetMapping("/api/reports/daily-sales")
+    public List<DailySalesDto> dailySales(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesReportService.findDailySales(from, to);
+    }
+
+    @GetMapping("/api/reports/members/{memberId}/monthly-spend")
+    public List<MemberSpendDto> memberMonthlySpend(@PathVariable("memberId") Long memberId) {
+        return salesReportService.findMemberSpend(memberId);
+    }
+
+    // 집계를 주문 테이블에서 다시 만듦
+    @PostMapping("/api/reports/rebuild")
+    public void rebuild() {
+        salesReportService.rebuild();
+    }
+}
@@ -0,0 +1,320 @@
+package jpabook.jpashopproject.datagen;
+
+import jpabook.jpashopproject.domain.Delivery;
+import jpabook.jpashopproject.domain.Member;
+import jpabook.jpashopproject.domain.Order;
+import jpabook.jpashopproject.domain.OrderItem;
+import jpabook.jpashopproject.domain.item.Book;
+import jpabook.jpashopproject.service.SalesReportService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 성능 테스트용 대량 데이터 생성 (jpashop.data-generator.enabled=true 일 때만, 이때 InitDb는 실행되지 않음)
+ *
+ * - 식별자는 엔티티의 id 생성기(PooledLoIdGenerator)로 미리 할당 -> 이후 애플리케이션이 만드는 id와 겹치지 않음
+ * - 엔티티를 거치지 않고 JDBC batch로 insert (MySQL은 rewriteBatchedStatements로 multi-row insert)
+ * - 서로 참조하지 않는 테이블(member, item, delivery)은 동시에, 나머지는 chunk 단위로 나눠서 동시에 insert
+ * - chunk마다 seed로 만든 Random을 사용 -> 스레드 실행 순서와 상관없이 같은 seed면 같은 데이터
+ * - skew > 1 이면 앞쪽 상품(인기 상품), 앞쪽 회원(많이 사는 회원)에 주문이 몰림 (1 = 균등)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.data-generator.enabled", havingValue = "true")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final LocalDateTime BASE_ORDER_DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int ORDER_DATE_RANGE_SECONDS = 365 * 24 * 60 * 60;
+
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate jdbcTemplate;
+    private final SalesReportService salesReportService;
+
+    @Value("${jpashop.data-generator.members:10000}")
+    private int memberCount;
+    @Value("${jpashop.data-generator.items:1000}")
+    private int itemCount;
+    @Value("${jpashop.data-generator.orders:100000}")
+    private int orderCount;
+    @Value("${jpashop.data-generator.max-items-per-order:3}")
+    private int maxItemsPerOrder;
+    @Value("${jpashop.data-generator.item-skew:1.0}")
+    private double itemSkew;
+    @Value("${jpashop.data-generator.member-skew:1.0}")
+    private double memberSkew;
+    @Value("${jpashop.data-generator.seed:42}")
+    private long seed;
+    @Value("${jpashop.data-generator.batch-size:1000}")
+    private int batchSize;
+    @Value("${jpashop.data-generator.threads:4}")
+    private int threads;
+
+    public SyntheticDataGenerator(EntityManagerFactory emf, JdbcTemplate jdbcTemplate,
+                                  SalesReportService salesReportService) {
+        this.emf = emf;
+        this.jdbcTemplate = jdbcTemplate;
+        this.salesReportService = salesReportService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+
+        // 주문별 상품 수 -> order_item 수와 주문별 시작 위치를 미리 계산
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] orderItemOffsets = new int[orderCount + 1];
+        for (int i = 0; i < orderCount; i++) {
+            orderItemOffsets[i + 1] = orderItemOffsets[i] + 1 + random.nextInt(maxItemsPerOrder);
+        }
+        int orderItemCount = orderItemOffsets[orderCount];
+
+        long[] memberIds = allocateIds(Member.class, memberCount);
+        long[] itemIds = allocateIds(Book.class, itemCount);
+        long[] deliveryIds = allocateIds(Delivery.class, orderCount);
+        long[] orderIds = allocateIds(Order.class, orderCount);
+        long[] orderItemIds = allocateIds(OrderItem.class, orderItemCount);
+
+        int[] prices = new int[itemCount];
+        random = new SplittableRandom(seed);
+        for (int i = 0; i < itemCount; i++) {
+            prices[i] = (1 + random.nextInt(100)) * 1000;
+        }
+
+        // 주문 상품(상품, 수량)을 미리 정함 -> 주문을 insert 할 때 전체 주문 가격(total_price)을 알 수 있음
+        int[] orderItemItems = new int[orderItemCount];
+        int[] orderItemCounts = new int[orderItemCount];
+        int[] totalPrices = new int[orderCount];
+        random = new SplittableRandom(seed);
+        for (int order = 0; order < orderCount; order++) {
+            for (int i = orderItemOffsets[order]; i < orderItemOffsets[order + 1]; i++) {
+                orderItemItems[i] = skewed(random, itemCount, itemSkew);
+                orderItemCounts[i] = 1 + random.nextInt(3);
+                totalPrices[order] += prices[orderItemItems[i]] * orderItemCounts[i];
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // 1. 서로 참조하지 않는 테이블
+            runTables(List.of(
+                    () -> insertMembers(executor, memberIds),
+                    () -> insertItems(executor, itemIds, prices),
+                    () -> insertDeliveries(executor, deliveryIds)));
+
+            // 2. member, delivery 참조
+            insertOrders(executor, orderIds, memberIds, deliveryIds, totalPrices);
+
+            // 3. orders, item 참조
+            insertOrderItems(executor, orderItemIds, orderItemOffsets, orderIds, itemIds, prices, orderItemItems, orderItemCounts);
+        } finally {
+            executor.shutdown();
+        }
+
+        long rows = (long) memberCount + itemCount + orderCount * 2L + orderItemCount;
+        report("total", rows, start);
+
+        // JDBC로 직접 넣었으므로 판매 집계는 주문 테이블에서 한번에 만듦
+        salesReportService.rebuild();
+    }
+
+    private void insertMembers(ExecutorService executor, long[] ids) {
+        long start = System.nanoTime();
+
+        insertChunks(executor, "member", ids.length,
+                "insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)",
+                (ps, i, random) -> {
+                    ps.setLong(1, ids[i]);
+                    ps.setString(2, "member" + i);
+                    ps.setString(3, "city" + random.nextInt(100));
+                    ps.setString(4, "street" + random.nextInt(10000));
+                    ps.setString(5, String.valueOf(10000 + random.nextInt(90000)));
+                });
+
+        report("member", ids.length, start);
+    }
+
+    private void insertItems(ExecutorService executor, long[] ids, int[] prices) {
+        long start = System.nanoTime();
+
+        insertChunks(executor, "item", ids.length,
+                "insert into item (dtype, item_id, name, price, stock_quantity, version, author, isbn)" +
+                        " values ('B', ?, ?, ?, ?, 0, ?, ?)",
+                (ps, i, random) -> {
+                    ps.setLong(1, ids[i]);
+                    ps.setString(2, "book" + i);
+                    ps.setInt(3, prices[i]);
+                    ps.setInt(4, 1000 + random.nextInt(100000));
+                    ps.setString(5, "author" + random.nextInt(1000));
+                    ps.setString(6, String.valueOf(9780000000000L + i));
+                });
+
+        report("item", ids.length, start);
+    }
+
+    private void insertDeliveries(ExecutorService executor, long[] ids) {
+        long start = System.nanoTime();
+
+        insertChunks(executor, "delivery", ids.length,
+                "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, 'READY')",
+                (ps, i, random) -> {
+                    ps.setLong(1, ids[i]);
+                    ps.setString(2, "city" + random.nextInt(100));
+                    ps.setString(3, "street" + random.nextInt(10000));
+                    ps.setString(4, String.valueOf(10000 + random.nextInt(90000)));
+                });
+
+        report("delivery", ids.length, start);
+    }
+
+    private void insertOrders(ExecutorService executor, long[] ids, long[] memberIds, long[] deliveryIds, int[] totalPrices) {
+        long start = System.nanoTime();
+
+        insertChunks(executor, "orders", ids.length,
+                "insert into orders (order_id, member_id, delivery_id, order_date, status, total_price) values (?, ?, ?, ?, 'ORDER', ?)",
+                (ps, i, random) -> {
+                    ps.setLong(1, ids[i]);
+                    ps.setLong(2, memberIds[skewed(random, memberIds.length, memberSkew)]);
+                    ps.setLong(3, deliveryIds[i]);
+                    ps.setTimestamp(4, Timestamp.valueOf(BASE_ORDER_DATE.plusSeconds(random.nextInt(ORDER_DATE_RANGE_SECONDS))));
+                    ps.setInt(5, totalPrices[i]);
+                });
+
+        report("orders", ids.length, start);
+    }
+
+    private void insertOrderItems(ExecutorService executor, long[] ids, int[] offsets,
+                                  long[] orderIds, long[] itemIds, int[] prices, int[] items, int[] counts) {
+        long start = System.nanoTime();
+
+        insertChunks(executor, "order_item", ids.length,
+                "insert into order_item (order_item_id, order_id, item_id, order_price, count, pending_stock)" +
+                        " values (?, ?, ?, ?, ?, 0)",
+                (ps, i, random) -> {
+                    ps.setLong(1, ids[i]);
+                    ps.setLong(2, orderIds[orderIndexOf(offsets, i)]);
+                    ps.setLong(3, itemIds[items[i]]);
+                    ps.setInt(4, prices[items[i]]);
+                    ps.setInt(5, counts[i]);
+                });
+
+        report("order_item", ids.length, start);
+    }
+
+    /**
+     * [0, rows)를 batchSize 씩 나눠서 동시에 insert
+     * chunk마다 (seed, 테이블, chunk 번호)로 만든 Random 사용 -> 실행 순서와 상관없이 같은 값
+     */
+    private void insertChunks(ExecutorService executor, String table, int rows, String sql, RowWriter writer) {
+        List<Runnable> tasks = new ArrayList<>();
+
+        for (int from = 0, chunk = 0; from < rows; from += batchSize, chunk++) {
+            int start = from;
+            int end = Math.min(from + batchSize, rows);
+            SplittableRandom random = new SplittableRandom(seed * 31 + table.hashCode() * 1_000_003L + chunk);
+
+            tasks.add(() -> jdbcTemplate.execute(sql, (PreparedStatement ps) -> {
+                for (int i = start; i < end; i++) {
+                    writer.write(ps, i, random);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }));
+        }
+
+        waitAll(executor, tasks);
+    }
+
+    // 1 = 균등, 클수록 앞쪽 인덱스에 몰림
+    private static int skewed(SplittableRandom random, int size, double skew) {
+        return Math.min(size - 1, (int) (size * Math.pow(random.nextDouble(), skew)));
+    }
+
+    // order_item 인덱스 -> 주문 인덱스 (offsets에서 이진 탐색)
+    private static int orderIndexOf(int[] offsets, int orderItemIndex) {
+        int low = 0;
+        int high = offsets.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets[mid] <= orderItemIndex) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private long[] allocateIds(Class<?> entityClass, int count) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        IdentifierGenerator generator = sessionFactory.getMetamodel()
+                .entityPersister(entityClass)
+                .getIdentifierGenerator();
+
+        long[] ids = new long[count];
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = ((Number) generator.generate((SharedSessionContractImplementor) session, null)).longValue();
+            }
+        }
+        return ids;
+    }
+
+    // 테이블 단위 작업은 chunk 작업과 다른 풀에서 실행 -> chunk 작업을 기다리느라 풀이 막히지 않음
+    private void runTables(List<Runnable> tables) {
+        ExecutorService tableExecutor = Executors.newFixedThreadPool(tables.size());
+        try {
+            waitAll(tableExecutor, tables);
+        } finally {
+            tableExecutor.shutdown();
+        }
+    }
+
+    private void waitAll(ExecutorService executor, List<Runnable> tasks) {
+        List<Future<?>> futures = new ArrayList<>();
+        tasks.forEach(task -> futures.add(executor.submit(task)));
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("데이터 생성이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("데이터 생성에 실패했습니다.", e.getCause());
+        }
+    }
+
+    private void report(String table, long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        log.info("데이터 생성 table = {}, rows = {}, {}s, {} rows/s",
+                table, rows, String.format("%.1f", seconds), (long) (rows / Math.max(seconds, 0.001)));
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, int index, SplittableRandom random) throws SQLException;
+    }
+}
@@ -0,0 +1,84 @@
+package jpabook.jpashopproject.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * primary / replica 커넥션 풀 (jpashop.datasource.routing.enabled: true)
+ * readOnly 트랜잭션은 replica로 (ReadWriteRoutingDataSource)
+ * 설정하지 않으면 spring.datasource 하나만 사용
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("jpashop.datasource.primary")
+    public HikariDataSource primaryDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("jpashop.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    // 공용 스케줄러(@Scheduled)와 따로 자기 스레드에서 확인
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${jpashop.datasource.replica-lag.max-lag-ms:1000}") long maxLagMillis,
+                                               @Value("${jpashop.datasource.replica-lag.check-interval-ms:500}") long checkIntervalMillis,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primary, replica, maxLagMillis, checkIntervalMillis, meterRegistry);
+    }
+
+    // 트랜잭션 시작 시점이 아니라 첫 쿼리 시점에 커넥션을 가져옴 -> 그때는 readOnly 여부를 알 수 있음
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaLagMonitor);
+        routing.setTargetDataSources(Map.of(DataSourceType.PRIMARY, primary, DataSourceType.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // 기본값(DELAYED_ACQUISITION_AND_HOLD)은 OSIV 동안 커넥션을 계속 잡고 있음
+    // -> readOnly 트랜잭션에서 가져온 replica 커넥션으로 다음 쓰기 트랜잭션이 실행될 수 있음
+    // => 트랜잭션이 끝나면 커넥션 반납, 트랜잭션마다 새로 고름
+    @Bean
+    public HibernatePropertiesCustomizer routingHibernateCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    // 다른 필터보다 먼저 -> 요청 전체가 read-your-writes 범위
+    @Bean
+    public FilterRegistrationBean<PrimaryPinningFilter> primaryPinningFilter() {
+        FilterRegistrationBean<PrimaryPinningFilter> registration = new FilterRegistrationBean<>(new PrimaryPinningFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
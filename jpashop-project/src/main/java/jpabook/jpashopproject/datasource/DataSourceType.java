@@ -0,0 +1,5 @@
+package jpabook.jpashopproject.datasource;
+
+public enum DataSourceType {
+    PRIMARY, REPLICA
+}
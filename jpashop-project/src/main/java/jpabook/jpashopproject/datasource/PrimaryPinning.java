@@ -0,0 +1,34 @@
+package jpabook.jpashopproject.datasource;
+
+/**
+ * 요청 안에서 쓰기 트랜잭션이 한번이라도 실행되면 이후 readOnly 트랜잭션도 primary로 보냄 (read-your-writes)
+ * -> 방금 저장한 데이터를 복제 지연 때문에 replica에서 못 읽는 일 x
+ * 범위는 PrimaryPinningFilter가 여는 요청 하나 (스케줄러 등 요청 밖에서는 고정하지 않음)
+ */
+public final class PrimaryPinning {
+
+    private static final ThreadLocal<boolean[]> SCOPE = new ThreadLocal<>();
+
+    private PrimaryPinning() {
+    }
+
+    static void begin() {
+        SCOPE.set(new boolean[1]);
+    }
+
+    static void end() {
+        SCOPE.remove();
+    }
+
+    static void pin() {
+        boolean[] pinned = SCOPE.get();
+        if (pinned != null) {
+            pinned[0] = true;
+        }
+    }
+
+    public static boolean isPinned() {
+        boolean[] pinned = SCOPE.get();
+        return pinned != null && pinned[0];
+    }
+}
@@ -0,0 +1,24 @@
+package jpabook.jpashopproject.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// 요청 하나를 read-your-writes 범위로 (PrimaryPinning)
+public class PrimaryPinningFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PrimaryPinning.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PrimaryPinning.end();
+        }
+    }
+}
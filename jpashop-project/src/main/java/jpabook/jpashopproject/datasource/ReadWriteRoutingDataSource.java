@@ -0,0 +1,39 @@
+package jpabook.jpashopproject.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * readOnly 트랜잭션 -> replica, 그 외 -> primary
+ * 다음 경우에는 readOnly여도 primary
+ * - 같은 요청에서 이미 쓰기 트랜잭션이 실행됨 (PrimaryPinning)
+ * - replica 지연이 기준보다 크거나 확인이 안됨 (ReplicaLagMonitor)
+ *
+ * 트랜잭션의 readOnly 여부는 트랜잭션 시작 후에 설정되므로 LazyConnectionDataSourceProxy로 감싸서
+ * 첫 쿼리 시점에 커넥션을 고르도록 해야 함 (DataSourceRoutingConfig)
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return DataSourceType.PRIMARY;
+        }
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            PrimaryPinning.pin();
+            return DataSourceType.PRIMARY;
+        }
+
+        if (PrimaryPinning.isPinned() || !replicaLagMonitor.isReplicaUsable()) {
+            return DataSourceType.PRIMARY;
+        }
+        return DataSourceType.REPLICA;
+    }
+}
@@ -0,0 +1,28 @@
+package jpabook.jpashopproject.datasource;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * replica 지연 측정용 (ReplicaLagMonitor)
+ * 서버마다 한 행 -> 자기가 쓴 값만 비교하므로 서버 간 시계 차이와 무관
+ */
+@Entity
+@Getter
+@Table(name = "replica_heartbeat")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ReplicaHeartbeat {
+
+    @Id
+    @Column(name = "instance_id", length = 36)
+    private String instanceId;
+
+    @Column(name = "beat_millis")
+    private long beatMillis;
+}
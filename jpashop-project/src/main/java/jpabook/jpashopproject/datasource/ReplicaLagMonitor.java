@@ -0,0 +1,104 @@
+package jpabook.jpashopproject.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * replica 지연 확인
+ * primary에 현재 시각(heartbeat)을 쓰고 바로 replica에서 가장 최근 heartbeat를 읽음 -> 지연 = 지금 - 복제된 heartbeat
+ * 복제가 읽기보다 늦으면 이전 heartbeat가 보이므로 값은 실제 지연 ~ 실제 지연 + check-interval 사이
+ * -> check-interval-ms는 max-lag-ms보다 충분히 작게 (기본 500 / 1000)
+ * 지연이 기준보다 크거나, replica를 읽지 못했거나, 한동안 확인하지 못했으면 replica를 쓰지 않음
+ * (서버 시작 후 첫 확인 전까지도 primary)
+ *
+ * 확인은 전용 스레드에서 -> 공용 스케줄러(아웃박스 릴레이, 판매 집계 재생성 등)가 밀려도 확인이 늦어지지 않음
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final long staleMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private volatile long lagMillis = Long.MAX_VALUE;
+    private volatile long checkedAt;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis, long checkIntervalMillis,
+                             MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.staleMillis = checkIntervalMillis * 3;
+
+        Gauge.builder("jpashop.datasource.replica.lag", this, m -> m.lagMillis == Long.MAX_VALUE ? -1 : m.lagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return lagMillis <= maxLagMillis && System.currentTimeMillis() - checkedAt <= staleMillis;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 서버 시작 중에는 heartbeat 테이블이 아직 없을 수 있음 -> 한 주기 뒤부터
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 새 heartbeat를 쓰고 replica에 복제된 가장 최근 heartbeat와의 차이를 지연으로 기록
+     */
+    public synchronized void check() {
+        try {
+            long now = System.currentTimeMillis();
+            if (primary.update("update replica_heartbeat set beat_millis = ? where instance_id = ?", now, instanceId) == 0) {
+                primary.update("insert into replica_heartbeat (instance_id, beat_millis) values (?, ?)", instanceId, now);
+            }
+
+            List<Long> replicated = replica.queryForList(
+                    "select beat_millis from replica_heartbeat where instance_id = ?", Long.class, instanceId);
+
+            // 아직 한 번도 복제되지 않았으면 지연을 알 수 없음 -> primary
+            lagMillis = replicated.isEmpty()
+                    ? Long.MAX_VALUE
+                    : Math.max(0, System.currentTimeMillis() - replicated.get(0));
+            checkedAt = now;
+        } catch (DataAccessException e) {
+            lagMillis = Long.MAX_VALUE;
+            log.warn("replica 지연 확인 실패 -> primary 사용", e);
+        } catch (RuntimeException e) {
+            // 예외가 밖으로 나가면 ScheduledExecutorService가 다음 확인을 하지 않음
+            lagMillis = Long.MAX_VALUE;
+            log.error("replica 지연 확인 중 예상하지 못한 오류 -> primary 사용", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package jpabook.jpashopproject.domain;
 
+import jpabook.jpashopproject.domain.id.PooledLoIdGenerator;
 import jpabook.jpashopproject.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,7 +13,7 @@ import java.util.List;
 @Getter @Setter
 public class Category {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledLoIdGenerator.NAME)
     @Column(name = "category_id")
     private Long id;
 
@@ -36,4 +37,9 @@ public class Category {
         this.child.add(category);
         category.setParent(this);
     }
+
+    public void addItem(Item item) {
+        this.items.add(item);
+        item.getCategories().add(this);
+    }
 }
@@ -1,8 +1,11 @@
 package jpabook.jpashopproject.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashopproject.domain.id.PooledLoIdGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.LazyToOne;
+import org.hibernate.annotations.LazyToOneOption;
 
 import javax.persistence.*;
 
@@ -10,12 +13,15 @@ import javax.persistence.*;
 @Getter @Setter
 public class Delivery {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledLoIdGenerator.NAME)
     @Column(name = "delivery_id")
     private Long id;
 
+    // 외래 키가 없는 쪽이라 프록시를 만들 수 없음 -> LAZY여도 배송을 읽을 때마다 주문을 함께 조회
+    // 바이트코드 향상(build.gradle) + NO_PROXY -> getOrder()를 호출할 때 조회
     @JsonIgnore
     @OneToOne(mappedBy = "delivery", fetch = FetchType.LAZY)
+    @LazyToOne(LazyToOneOption.NO_PROXY)
     private Order order;
 
     @Embedded
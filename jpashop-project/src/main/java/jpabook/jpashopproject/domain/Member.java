@@ -1,8 +1,11 @@
 package jpabook.jpashopproject.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashopproject.domain.id.PooledLoIdGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -12,7 +15,7 @@ import java.util.List;
 @Getter @Setter
 public class Member {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledLoIdGenerator.NAME)
     @Column(name = "member_id")
     private Long id;
 
@@ -21,7 +24,10 @@ public class Member {
     @Embedded
     private Address address;
 
+    // 주문 이력은 회원마다 계속 늘어남 -> 목록 전체를 읽지 않고 add, size(), contains()
+    // (add는 큐에 쌓임, size(), contains()는 count 쿼리 -> Order.setMember)
     @JsonIgnore
     @OneToMany(mappedBy = "member")
+    @LazyCollection(LazyCollectionOption.EXTRA)
     private List<Order> orders = new ArrayList<>();
 }
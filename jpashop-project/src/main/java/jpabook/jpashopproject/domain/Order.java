@@ -1,5 +1,6 @@
 package jpabook.jpashopproject.domain;
 
+import jpabook.jpashopproject.domain.id.PooledLoIdGenerator;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -9,15 +10,17 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Entity
 @Getter @Setter
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date", columnList = "order_date, order_id"),
+        @Index(name = "idx_orders_total_price", columnList = "total_price")})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
-    @Id
-    @GeneratedValue
+    @Id @GeneratedValue(generator = PooledLoIdGenerator.NAME)
     @Column(name = "order_id")
     private Long id;
 
@@ -34,12 +37,23 @@ public class Order {
     @JoinColumn(name = "delivery_id")
     private Delivery delivery;
 
+    // 키셋 페이징 (orderDate, id) 정렬 -> 인덱스
+    @Column(name = "order_date")
     private LocalDateTime orderDate;
 
     @Enumerated(value = EnumType.STRING)
     private OrderStatus status;
 
+    // 전체 주문 가격 -> 목록에서 orderItems를 읽지 않고 바로 사용 (정렬, 검색은 인덱스)
+    // 주문 상품이 추가될 때 함께 갱신
+    @Setter(AccessLevel.NONE)
+    @Column(name = "total_price")
+    private int totalPrice;
+
     // 연관관계 편의 메소드 -> 일반적으로 연관관계의 주인 쪽에 선언
+    // member.orders가 아직 로딩되지 않았으면 add는 큐에만 쌓이고 나중에 목록을 읽을 때 반영됨 (mappedBy 쪽 PersistentBag)
+    // -> 주문할 때 회원의 이전 주문을 읽지 않음 (쿼리 수가 주문 이력과 무관, OrderServiceTest)
+    // 바이트코드 향상의 association management를 켜면 contains()로 목록을 초기화하므로 사용 x (build.gradle)
     public void setMember(Member member) {
         this.member = member;
         member.getOrders().add(this);
@@ -48,6 +62,7 @@ public class Order {
     public void addOrderItem(OrderItem orderItem) {
         this.orderItems.add(orderItem);
         orderItem.setOrder(this);
+        this.totalPrice += orderItem.getTotalPrice();
     }
 
     public void setDelivery(Delivery delivery) {
@@ -77,26 +92,23 @@ public class Order {
      * 주문 취소
      */
     public void cancel() {
+        cancel(OrderItem::cancel);
+    }
+
+    /**
+     * 주문 취소 - 재고를 어디로 돌려줄지 호출하는 쪽에서 결정
+     * (재고 원장으로 관리하는 상품은 item 대신 원장으로 돌려줌)
+     */
+    public void cancel(Consumer<OrderItem> stockReturn) {
         if (delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송 완료된 상품은 취소가 불가능합니다.");
         }
 
+        // 취소해도 주문 상품은 그대로 -> 전체 주문 가격도 그대로 유지
         this.setStatus(OrderStatus.CANCEL);
 
         for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
+            stockReturn.accept(orderItem);
         }
     }
-
-    // 조회 로직
-
-    /**
-     * 전체 주문 가격 조회
-     */
-    public int getTotalPrice() {
-
-        return orderItems.stream()
-                .mapToInt(OrderItem::getTotalPrice)
-                .sum();
-    }
 }
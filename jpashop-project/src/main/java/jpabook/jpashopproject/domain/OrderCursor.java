@@ -0,0 +1,53 @@
+package jpabook.jpashopproject.domain;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징 커서
+ * 마지막으로 읽은 주문의 (orderDate, orderId)를 클라이언트가 해석할 필요 없는 문자열로 인코딩
+ * offset 페이징은 앞 페이지의 row를 모두 읽고 버리지만 커서는 "이 위치 다음부터" 읽기 때문에
+ * 페이지가 깊어져도 페이지 당 비용이 일정함
+ * orderDate가 없는 주문은 위치를 정할 수 없음 -> 커서 페이징에서 제외
+ */
+@Getter
+public class OrderCursor {
+
+    private final LocalDateTime orderDate;
+    private final Long orderId;
+
+    public OrderCursor(LocalDateTime orderDate, Long orderId) {
+        if (orderDate == null || orderId == null) {
+            throw new IllegalArgumentException("커서에는 주문일과 주문 id가 필요합니다. orderId = " + orderId);
+        }
+        this.orderDate = orderDate;
+        this.orderId = orderId;
+    }
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getOrderDate(), order.getId());
+    }
+
+    public String encode() {
+        String raw = orderDate + "," + orderId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(',');
+
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다. cursor = " + cursor, e);
+        }
+    }
+}
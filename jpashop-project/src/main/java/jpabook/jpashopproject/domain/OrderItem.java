@@ -1,6 +1,7 @@
 package jpabook.jpashopproject.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashopproject.domain.id.PooledLoIdGenerator;
 import jpabook.jpashopproject.domain.item.Item;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -11,11 +12,11 @@ import javax.persistence.*;
 
 @Entity
 @Getter @Setter
+@Table(indexes = @Index(name = "idx_order_item_pending_stock", columnList = "pending_stock"))
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
 
-    @Id
-    @GeneratedValue
+    @Id @GeneratedValue(generator = PooledLoIdGenerator.NAME)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -31,6 +32,11 @@ public class OrderItem {
     private int orderPrice;
     private int count;
 
+    // 재고 원장(StockLedger)에서 차감했지만 아직 item 테이블에 반영하지 않은 수량 (차감: 음수, 반환: 양수)
+    // 주문과 같은 트랜잭션으로 저장됨 -> 서버가 죽어도 DB에서 복구 가능
+    @Column(name = "pending_stock")
+    private int pendingStock;
+
     // jpa에서 protected -> 생성자 쓰지 마라!!!
 //    protected OrderItem() {} -> 롬복 사용 가능
 
@@ -46,6 +52,24 @@ public class OrderItem {
         return orderItem;
     }
 
+    // 재고 차감이 이미 끝난 경우 (ItemRepository.decreaseStock)
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+
+        return orderItem;
+    }
+
+    // 재고 원장에서 차감한 경우 -> item 테이블 반영은 StockLedgerFlusher가 나중에 함
+    public static OrderItem createPendingOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = createReservedOrderItem(item, orderPrice, count);
+        orderItem.setPendingStock(-count);
+
+        return orderItem;
+    }
+
     // 비지니스 로직
     public void cancel() {
         getItem().addStockQuantity(count);
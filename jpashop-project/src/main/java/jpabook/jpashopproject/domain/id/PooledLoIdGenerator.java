@@ -0,0 +1,41 @@
+package jpabook.jpashopproject.domain.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * 엔티티별 식별자 블록 할당 (pooled-lo)
+ * MySQL에는 시퀀스가 없음 -> @GeneratedValue(AUTO)는 모든 엔티티가 hibernate_sequence 테이블 하나를 공유
+ * -> insert 할 때마다 그 row에 락을 잡고 한번씩 왕복함 (JDBC batch도 의미가 없어짐)
+ *
+ * 엔티티마다 자기 시퀀스(MySQL은 시퀀스 테이블)에서 block_size 만큼 한번에 가져와서 메모리에서 나눠줌
+ * 블록은 스레드마다 따로 가짐 (pooled-lotl) -> 한 스레드가 새 블록을 가져오는 동안 다른 스레드는 기다리지 않음
+ */
+public class PooledLoIdGenerator extends SequenceStyleGenerator {
+
+    public static final String NAME = "pooled_lo";
+    public static final String STRATEGY = "jpabook.jpashopproject.domain.id.PooledLoIdGenerator";
+
+    // spring.jpa.properties.jpashop.id.block_size
+    public static final String BLOCK_SIZE = "jpashop.id.block_size";
+    private static final int DEFAULT_BLOCK_SIZE = 100;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        int blockSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(BLOCK_SIZE, StandardConverters.INTEGER, DEFAULT_BLOCK_SIZE);
+
+        params.putIfAbsent(CONFIG_PREFER_SEQUENCE_PER_ENTITY, "true");
+        params.putIfAbsent(INCREMENT_PARAM, String.valueOf(blockSize));
+        params.putIfAbsent(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LOTL.getExternalName());
+
+        super.configure(type, params, serviceRegistry);
+    }
+}
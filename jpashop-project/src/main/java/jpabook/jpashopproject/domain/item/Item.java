@@ -1,21 +1,27 @@
 package jpabook.jpashopproject.domain.item;
 
 import jpabook.jpashopproject.domain.Category;
+import jpabook.jpashopproject.domain.id.PooledLoIdGenerator;
 import jpabook.jpashopproject.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
+// 상품은 자주 바뀌지 않음 -> 2차 캐시 (하위 타입 Book, Album, Movie도 같은 영역 사용)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
 @Getter @Setter
 public abstract class Item {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledLoIdGenerator.NAME)
     @Column(name = "item_id")
     private Long id;
 
@@ -23,6 +29,12 @@ public abstract class Item {
     private int price;
     private int stockQuantity;
 
+    // 동시 주문 시 변경 감지로 재고를 바꾸면 갱신 분실 -> 커밋 시점에 버전 비교 (낙관적 락)
+    // 주문, 취소는 조건부 update(SQL)로 재고와 버전을 함께 바꿈
+    // -> 변경 감지로 상품을 수정하는 곳은 row 락(상품 수정, 대량 주문)이나 재시도(OptimisticLockOrderFacade)를 거쳐야 함
+    @Version
+    private Long version;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
@@ -0,0 +1,50 @@
+package jpabook.jpashopproject.domain.outbox;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 이벤트 아웃박스
+ * 주문과 같은 트랜잭션에 insert -> 커밋된 주문만 이벤트가 남음 (요청 안에서 외부 시스템 호출 x)
+ * OrderOutboxRelay가 publishedAt이 없는 이벤트를 id 순으로 읽어서 전달
+ *
+ * id는 auto increment -> 같은 주문의 이벤트는 먼저 커밋된 쪽(주문 -> 취소)이 항상 작은 id
+ * insert는 OrderOutboxRepository에서 JDBC batch로 보냄
+ */
+@Entity
+@Getter
+@Table(name = "order_outbox_event", indexes = {
+        @Index(name = "idx_order_outbox_pending", columnList = "published_at, id"),
+        @Index(name = "idx_order_outbox_order", columnList = "order_id, id")})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderOutboxEvent {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OrderEventType eventType;
+
+    @Lob
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // 전달 실패 횟수, 마지막 오류
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
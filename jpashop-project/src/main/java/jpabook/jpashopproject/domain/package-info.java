@@ -0,0 +1,9 @@
+/**
+ * 모든 엔티티가 같이 쓰는 식별자 생성기 -> 엔티티에는 @GeneratedValue(generator = PooledLoIdGenerator.NAME)만
+ * 이름은 하나지만 시퀀스는 엔티티마다 따로 (PooledLoIdGenerator)
+ */
+@GenericGenerator(name = PooledLoIdGenerator.NAME, strategy = PooledLoIdGenerator.STRATEGY)
+package jpabook.jpashopproject.domain;
+
+import jpabook.jpashopproject.domain.id.PooledLoIdGenerator;
+import org.hibernate.annotations.GenericGenerator;
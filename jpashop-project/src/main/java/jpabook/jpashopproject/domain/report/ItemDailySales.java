@@ -0,0 +1,44 @@
+package jpabook.jpashopproject.domain.report;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 상품 x 일 판매 집계 (취소된 주문은 빠짐)
+ * 주문, 취소 시 SalesRollupRepository가 증감 -> 리포트는 orders, order_item을 읽지 않고 이 테이블만 읽음
+ * 취소는 주문한 날짜 버킷에서 뺌 -> 처음부터 다시 만든 결과와 같음
+ */
+@Entity
+@Getter
+@Table(name = "item_daily_sales", indexes = @Index(name = "idx_item_daily_sales_date", columnList = "sales_date"))
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ItemDailySales {
+
+    @EmbeddedId
+    private Key id;
+
+    private long quantity;
+
+    private long revenue;
+
+    @Embeddable
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "item_id")
+        private Long itemId;
+
+        @Column(name = "sales_date")
+        private LocalDate salesDate;
+    }
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashopproject.domain.report;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * 회원 x 월 주문 금액 집계 (취소된 주문은 빠짐)
+ * spendMonth = yyyyMM (예: 202401) -> MySQL, H2 모두 extract로 계산 가능
+ */
+@Entity
+@Getter
+@Table(name = "member_monthly_spend")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberMonthlySpend {
+
+    @EmbeddedId
+    private Key id;
+
+    private long amount;
+
+    @Column(name = "order_count")
+    private int orderCount;
+
+    @Embeddable
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "member_id")
+        private Long memberId;
+
+        @Column(name = "spend_month")
+        private int spendMonth;
+    }
+}
@@ -0,0 +1,30 @@
+package jpabook.jpashopproject.jpa;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * OSIV Session을 읽기 전용 + FlushMode.MANUAL로 시작
+ * 컨트롤러에서 트랜잭션 없이 리포지토리를 호출하거나 lazy 로딩한 엔티티도 스냅샷을 만들지 않음
+ * 쓰기 트랜잭션 동안만 변경 감지 (ReadOnlySessionJpaDialect)
+ */
+public class ReadOnlyEntityManagerInViewInterceptor extends OpenEntityManagerInViewInterceptor {
+
+    @Override
+    public void preHandle(WebRequest request) {
+        boolean opened = !TransactionSynchronizationManager.hasResource(obtainEntityManagerFactory());
+        super.preHandle(request);
+
+        // 이미 열려 있던 Session(forward, async 재진입)은 그대로
+        if (opened) {
+            EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            Session session = holder.getEntityManager().unwrap(Session.class);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+    }
+}
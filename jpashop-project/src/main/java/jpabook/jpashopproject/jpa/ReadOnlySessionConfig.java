@@ -0,0 +1,59 @@
+package jpabook.jpashopproject.jpa;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 읽기 전용 Session 설정
+ * - JpaVendorAdapter: 스프링 부트 기본 설정 + ReadOnlySessionJpaDialect (JpaTransactionManager가 EntityManagerFactory에서 가져감)
+ * - OSIV: 스프링 부트 인터셉터 대신 ReadOnlyEntityManagerInViewInterceptor (등록하면 부트 설정은 빠짐)
+ */
+@Configuration
+public class ReadOnlySessionConfig {
+
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        HibernateJpaVendorAdapter adapter = new ReadOnlySessionJpaVendorAdapter();
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (properties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "spring.jpa", name = "open-in-view", havingValue = "true", matchIfMissing = true)
+    static class ReadOnlyOpenInViewConfig implements WebMvcConfigurer {
+
+        @Bean
+        public ReadOnlyEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+            return new ReadOnlyEntityManagerInViewInterceptor();
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor());
+        }
+    }
+
+    static class ReadOnlySessionJpaVendorAdapter extends HibernateJpaVendorAdapter {
+
+        private final HibernateJpaDialect jpaDialect = new ReadOnlySessionJpaDialect();
+
+        @Override
+        public HibernateJpaDialect getJpaDialect() {
+            return jpaDialect;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package jpabook.jpashopproject.jpa;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * readOnly 트랜잭션은 HibernateJpaDialect가 이미 Session을 읽기 전용(스냅샷 x) + FlushMode.MANUAL로 바꿈
+ * 다만 트랜잭션이 끝나면 항상 읽기 전용을 풀어버림
+ * -> OSIV Session(ReadOnlyEntityManagerInViewInterceptor)에서는 원래 값(읽기 전용)으로 되돌림
+ *
+ * 읽기 전용 Session에서 쓰기 트랜잭션이 시작되면
+ * 앞서 읽기 전용으로 읽은 엔티티도 변경 감지 대상으로 되돌림 (안 그러면 변경이 조용히 무시됨)
+ */
+public class ReadOnlySessionJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+
+        if (defaultReadOnly && !definition.isReadOnly()) {
+            session.setDefaultReadOnly(false);
+            makeModifiable(session);
+        }
+
+        return new TransactionData(session, defaultReadOnly, super.beginTransaction(entityManager, definition));
+    }
+
+    @Override
+    public void cleanupTransaction(@Nullable Object transactionData) {
+        if (!(transactionData instanceof TransactionData)) {
+            super.cleanupTransaction(transactionData);
+            return;
+        }
+
+        TransactionData data = (TransactionData) transactionData;
+        super.cleanupTransaction(data.delegate);
+
+        if (data.session.isOpen()) {
+            data.session.setDefaultReadOnly(data.defaultReadOnly);
+        }
+    }
+
+    // 스냅샷을 현재 값으로 새로 만듦 -> 이번 트랜잭션에서 바꾼 값만 update
+    private static void makeModifiable(SessionImplementor session) {
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entry.getValue().getStatus() == Status.READ_ONLY) {
+                session.setReadOnly(entry.getKey(), false);
+            }
+        }
+    }
+
+    private static class TransactionData {
+
+        private final Session session;
+        private final boolean defaultReadOnly;
+        private final Object delegate;
+
+        TransactionData(Session session, boolean defaultReadOnly, Object delegate) {
+            this.session = session;
+            this.defaultReadOnly = defaultReadOnly;
+            this.delegate = delegate;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package jpabook.jpashopproject.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔드포인트별 쿼리 사용량 집계
+ * Micrometer 지표(jpashop.request.*)로 내보내고 디버그 API(/api/stats/queries)용 요약도 보관
+ */
+@Slf4j
+@Component
+public class EndpointQueryStats {
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+    private final Map<String, Summary> summaries = new ConcurrentHashMap<>();
+
+    public EndpointQueryStats(MeterRegistry meterRegistry,
+                              @Value("${jpashop.query-metrics.n-plus-one-threshold:3}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    void record(String method, String uri, RequestQueryStats stats) {
+        String endpoint = method + " " + uri;
+
+        DistributionSummary.builder("jpashop.request.statements")
+                .tag("method", method).tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("jpashop.request.entities.loaded")
+                .tag("method", method).tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getEntitiesLoaded());
+        DistributionSummary.builder("jpashop.request.collections.fetched")
+                .tag("method", method).tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getCollectionsFetched());
+        Timer.builder("jpashop.request.flush")
+                .tag("method", method).tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getFlushNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("jpashop.request.connection.hold")
+                .tag("method", method).tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getConnectionHoldNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = stats.repeatedStatements(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("jpashop.request.n_plus_one")
+                    .tag("method", method).tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("N + 1 의심 endpoint = {}, statements = {}", endpoint, repeated);
+        }
+
+        summaries.computeIfAbsent(endpoint, k -> new Summary()).add(stats, repeated);
+    }
+
+    // 엔드포인트 이름순
+    public Map<String, Summary> summaries() {
+        return new TreeMap<>(summaries);
+    }
+
+    @Getter
+    public static class Summary {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final AtomicLong maxStatements = new AtomicLong();
+        private final LongAdder entitiesLoaded = new LongAdder();
+        private final LongAdder collectionsFetched = new LongAdder();
+        private final LongAdder flushNanos = new LongAdder();
+        private final LongAdder connectionHoldNanos = new LongAdder();
+        private final LongAdder nPlusOneRequests = new LongAdder();
+
+        // 마지막으로 N + 1 이 의심된 요청의 SQL -> 실행 횟수
+        private volatile Map<String, Integer> lastRepeatedStatements = Map.of();
+
+        private void add(RequestQueryStats stats, Map<String, Integer> repeated) {
+            requests.increment();
+            statements.add(stats.getStatements());
+            maxStatements.accumulateAndGet(stats.getStatements(), Math::max);
+            entitiesLoaded.add(stats.getEntitiesLoaded());
+            collectionsFetched.add(stats.getCollectionsFetched());
+            flushNanos.add(stats.getFlushNanos());
+            connectionHoldNanos.add(stats.getConnectionHoldNanos());
+
+            if (!repeated.isEmpty()) {
+                nPlusOneRequests.increment();
+                lastRepeatedStatements = repeated;
+            }
+        }
+    }
+}
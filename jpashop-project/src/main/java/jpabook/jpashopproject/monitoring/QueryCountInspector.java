@@ -0,0 +1,19 @@
+package jpabook.jpashopproject.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 하이버네이트가 실행하는 SQL을 요청별로 기록 (SQL은 바꾸지 않음)
+ * JdbcTemplate으로 직접 실행한 SQL은 하이버네이트를 거치지 않으므로 집계되지 않음
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.statementExecuted(sql);
+        }
+        return sql;
+    }
+}
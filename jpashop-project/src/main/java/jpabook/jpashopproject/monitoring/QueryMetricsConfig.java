@@ -0,0 +1,19 @@
+package jpabook.jpashopproject.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryMetricsConfig {
+
+    // 요청별 쿼리 집계용 StatementInspector, SessionEventListener 등록
+    @Bean
+    public HibernatePropertiesCustomizer queryMetricsHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QuerySessionEventListener.class.getName());
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashopproject.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청 시작 ~ 끝까지의 쿼리 사용량을 매핑된 URL 패턴 기준으로 집계
+ * 인터셉터가 아닌 필터 -> OSIV가 EntityManager를 닫으며 커넥션을 반납하는 시점까지 포함됨
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryMetricsFilter extends OncePerRequestFilter {
+
+    private final EndpointQueryStats endpointQueryStats;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.start();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.finish();
+
+            // 핸들러에 매핑되지 않은 요청(정적 리소스 등)은 제외
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                endpointQueryStats.record(request.getMethod(), pattern.toString(), stats);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashopproject.monitoring;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * 세션(EntityManager)마다 하이버네이트가 생성 (hibernate.session.events.auto)
+ * flush 시간, 커넥션을 잡고 있던 시간을 요청별로 기록
+ */
+public class QuerySessionEventListener extends BaseSessionEventListener {
+
+    private long flushStart;
+    private long connectionAcquired;
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.flushed(System.nanoTime() - flushStart);
+        }
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        connectionAcquired = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionReleaseEnd() {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null && connectionAcquired != 0) {
+            stats.connectionReleased(System.nanoTime() - connectionAcquired);
+        }
+        connectionAcquired = 0;
+    }
+}
@@ -0,0 +1,90 @@
+package jpabook.jpashopproject.monitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 요청 하나 동안의 하이버네이트 사용량 (요청 스레드의 ThreadLocal에 보관)
+ * 다른 스레드(스케줄러, 주문 조회 스레드 풀)에서 실행된 쿼리는 집계되지 않음
+ */
+public class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entitiesLoaded;
+    private int collectionsFetched;
+    private long flushNanos;
+    private long connectionHoldNanos;
+
+    // SQL 모양(파라미터는 ?) -> 실행 횟수
+    private final Map<String, Integer> statementShapes = new HashMap<>();
+
+    static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void finish() {
+        CURRENT.remove();
+    }
+
+    void statementExecuted(String sql) {
+        statements++;
+        statementShapes.merge(sql, 1, Integer::sum);
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    void collectionFetched() {
+        collectionsFetched++;
+    }
+
+    void flushed(long nanos) {
+        flushNanos += nanos;
+    }
+
+    void connectionReleased(long heldNanos) {
+        connectionHoldNanos += heldNanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public int getCollectionsFetched() {
+        return collectionsFetched;
+    }
+
+    public long getFlushNanos() {
+        return flushNanos;
+    }
+
+    public long getConnectionHoldNanos() {
+        return connectionHoldNanos;
+    }
+
+    /**
+     * 같은 모양의 SQL이 파라미터만 바꿔서 threshold 번 이상 실행됨 -> N + 1 의심
+     */
+    public Map<String, Integer> repeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new HashMap<>();
+        statementShapes.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
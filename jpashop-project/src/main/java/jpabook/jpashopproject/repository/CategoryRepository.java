@@ -0,0 +1,104 @@
+package jpabook.jpashopproject.repository;
+
+import jpabook.jpashopproject.domain.Category;
+import jpabook.jpashopproject.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    public Category findOneForUpdate(Long id) {
+        return em.find(Category.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * id부터 부모를 따라 올라가며 ancestorId가 나오는지 DB에서 확인
+     * 지나가는 카테고리마다 row 락 -> 같은 경로를 옮기는 트랜잭션은 순서대로 실행 (동시에 옮겨서 순환이 생기지 않음)
+     */
+    public boolean isAncestorOrSelfForUpdate(Long ancestorId, Long id) {
+        Long current = id;
+        while (current != null) {
+            if (current.equals(ancestorId)) {
+                return true;
+            }
+            current = findParentIdForUpdate(current);
+        }
+        return false;
+    }
+
+    // 영속성 컨텍스트에 있는 값이 아니라 커밋된 최신 부모를 읽음
+    private Long findParentIdForUpdate(Long id) {
+        List<?> parentIds = em.createNativeQuery(
+                        "select parent_id from category where category_id = ? for update")
+                .setParameter(1, id)
+                .getResultList();
+
+        if (parentIds.isEmpty() || parentIds.get(0) == null) {
+            return null;
+        }
+        return ((Number) parentIds.get(0)).longValue();
+    }
+
+    public boolean existsItem(Long categoryId, Long itemId) {
+        return !em.createQuery(
+                        "select i.id from Category c" +
+                                " join c.items i" +
+                                " where c.id = :categoryId and i.id = :itemId", Long.class)
+                .setParameter("categoryId", categoryId)
+                .setParameter("itemId", itemId)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * 카테고리에 상품 추가
+     * items는 연관관계 주인 -> 초기화 전에 add 하면 목록 전체를 읽음
+     * 초기화되지 않았으면 조인 테이블에 바로 insert (이미 읽은 컬렉션은 편의 메소드로)
+     */
+    public void addItem(Category category, Item item) {
+        if (Hibernate.isInitialized(category.getItems())) {
+            category.addItem(item);
+            return;
+        }
+
+        em.createNativeQuery("insert into category_item (category_id, item_id) values (?, ?)")
+                .setParameter(1, category.getId())
+                .setParameter(2, item.getId())
+                .executeUpdate();
+
+        // 반대쪽은 연관관계 주인이 아님 -> 이미 읽었으면 메모리 값만 맞춤
+        if (Hibernate.isInitialized(item.getCategories())) {
+            item.getCategories().add(category);
+        }
+    }
+
+    /**
+     * 카테고리 트리 전체를 쿼리 한번으로 조회
+     * row = {카테고리 id, 이름, 부모 id, 상품 id} (상품이 여러 개면 카테고리가 여러 row로 나옴)
+     */
+    public List<Object[]> findTreeRows() {
+        return em.createQuery(
+                        "select c.id, c.name, p.id, i.id from Category c" +
+                                " left join c.parent p" +
+                                " left join c.items i", Object[].class)
+                .getResultList();
+    }
+}
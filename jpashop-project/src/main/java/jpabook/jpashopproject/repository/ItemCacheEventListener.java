@@ -0,0 +1,34 @@
+package jpabook.jpashopproject.repository;
+
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 상품 캐시에서 용량 초과(EVICTED), TTL 만료(EXPIRED)로 빠진 수 (ehcache.xml 에서 등록)
+ * 하이버네이트 통계에는 eviction 수가 없음
+ */
+public class ItemCacheEventListener implements CacheEventListener<Object, Object> {
+
+    private static final LongAdder evictions = new LongAdder();
+    private static final LongAdder expirations = new LongAdder();
+
+    @Override
+    public void onEvent(CacheEvent<?, ?> event) {
+        if (event.getType() == EventType.EVICTED) {
+            evictions.increment();
+        } else if (event.getType() == EventType.EXPIRED) {
+            expirations.increment();
+        }
+    }
+
+    public static long getEvictions() {
+        return evictions.sum();
+    }
+
+    public static long getExpirations() {
+        return expirations.sum();
+    }
+}
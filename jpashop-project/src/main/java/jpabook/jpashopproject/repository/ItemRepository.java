@@ -1,16 +1,34 @@
 package jpabook.jpashopproject.repository;
 
 import jpabook.jpashopproject.domain.item.Item;
+import jpabook.jpashopproject.exception.NotEnoughStockException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.Cache;
+import javax.persistence.CacheStoreMode;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
+    // 상품 목록 쿼리 캐시 (ehcache.xml)
+    public static final String ITEM_QUERY_REGION = "item-catalog-query";
+
+    // 재고만 바뀌는 update는 상품 목록(쿼리 캐시)과 다른 캐시에 영향 x
+    // -> 하이버네이트가 Item 캐시 전체를 비우지 않도록 별도 query space로 지정하고 바뀐 상품만 직접 지움
+    private static final String STOCK_QUERY_SPACE = "item_stock";
+
     private final EntityManager em;
 
     public void save(Item item) {
@@ -30,8 +48,118 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    // 상품 수정 -> 동시 주문(조건부 update)이 끝날 때까지 기다린 뒤 최신 버전으로 읽음
+    public Item findOneForUpdate(Long id) {
+        return em.find(Item.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    // 상품 목록은 자주 바뀌지 않음 -> 쿼리 캐시 (상품 추가/수정 시 하이버네이트가 무효화)
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, ITEM_QUERY_REGION)
+                .getResultList();
+    }
+
+    // 카테고리 하위 상품 -> 모아둔 상품 id로 in 쿼리 한번
+    public List<Item> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
                 .getResultList();
     }
+
+    // 대량 주문 -> 여러 상품을 in 쿼리 한번으로 조회하면서 row 락 (id 순서로 잡아서 데드락 x)
+    public List<Item> findAllByIdForUpdate(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return em.createQuery("select i from Item i where i.id in :ids order by i.id", Item.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    /**
+     * 재고 감소 (조건부 update)
+     * 엔티티 조회 -> 수정 -> 변경 감지는 동시에 주문이 들어오면 갱신 분실이 생김
+     * -> "재고가 충분할 때만 차감"을 update 쿼리 한번으로 처리 (비관적 락 없이 row 락만 잠깐 잡음)
+     */
+    public void decreaseStock(Item item, int quantity) {
+        // 아직 insert 되지 않은 상품이 있을 수 있음
+        em.flush();
+
+        int updated = em.createNativeQuery(
+                        "update item" +
+                                " set stock_quantity = stock_quantity - ?, version = version + 1" +
+                                " where item_id = ?" +
+                                " and stock_quantity >= ?")
+                .setParameter(1, quantity)
+                .setParameter(2, item.getId())
+                .setParameter(3, quantity)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .executeUpdate();
+
+        if (updated == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+
+        evictAfterCompletion(List.of(item.getId()));
+
+        // 벌크 연산은 영속성 컨텍스트를 거치지 않음 -> 관리 중인 item을 DB 값(재고, 버전)으로 맞춰줌
+        // 커밋 전 값이므로 2차 캐시에는 올리지 않음
+        em.refresh(item, Map.of("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS));
+    }
+
+    /**
+     * 재고 반환 (주문 취소, 일괄 취소) - 상품마다 합산된 수량으로 update 한번
+     * itemId 순서로 update -> 동시에 실행되어도 같은 순서로 락을 잡음
+     */
+    public void increaseStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        em.flush();
+
+        new TreeMap<>(quantities).forEach((itemId, quantity) -> em.createNativeQuery(
+                        "update item" +
+                                " set stock_quantity = stock_quantity + ?, version = version + 1" +
+                                " where item_id = ?")
+                .setParameter(1, quantity)
+                .setParameter(2, itemId)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE)
+                .executeUpdate());
+
+        evictAfterCompletion(quantities.keySet());
+
+        ManagedEntities.refresh(em, Item.class, i -> quantities.containsKey(i.getId()),
+                Map.of("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS));
+    }
+
+    /**
+     * SQL로 재고를 직접 바꾼 경우 2차 캐시에서 해당 상품만 지움
+     * 커밋(롤백) 전에 다른 트랜잭션이 옛 값을 다시 올릴 수 있으므로 트랜잭션이 끝난 뒤에 지움
+     */
+    public void evictAfterCompletion(Collection<Long> itemIds) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            itemIds.forEach(id -> cache.evict(Item.class, id));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                itemIds.forEach(id -> cache.evict(Item.class, id));
+            }
+        });
+    }
 }
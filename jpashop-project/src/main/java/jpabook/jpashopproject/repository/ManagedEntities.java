@@ -0,0 +1,35 @@
+package jpabook.jpashopproject.repository;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 벌크 연산(JPQL update, native SQL)은 영속성 컨텍스트를 거치지 않음
+ * -> 이미 영속성 컨텍스트에 올라와 있는 엔티티만 골라서 DB 값으로 다시 읽음 (없는 엔티티는 조회하지 않음)
+ */
+final class ManagedEntities {
+
+    private ManagedEntities() {
+    }
+
+    static <T> void refresh(EntityManager em, Class<T> type, Predicate<T> filter, Map<String, Object> hints) {
+        List<T> managed = new ArrayList<>();
+
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal()
+                .reentrantSafeEntityEntries()) {
+            Object entity = entry.getKey();
+            if (type.isInstance(entity) && filter.test(type.cast(entity))) {
+                managed.add(type.cast(entity));
+            }
+        }
+
+        managed.forEach(entity -> em.refresh(entity, hints));
+    }
+}
@@ -0,0 +1,100 @@
+package jpabook.jpashopproject.repository;
+
+import jpabook.jpashopproject.domain.outbox.OrderEventType;
+import jpabook.jpashopproject.service.outbox.OrderEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 이벤트 아웃박스 (order_outbox_event)
+ * 주문 트랜잭션 안에서 JDBC batch로 insert, 릴레이는 미전달 이벤트를 row 락을 걸고 읽음
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderOutboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void saveAll(List<NewEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(
+                "insert into order_outbox_event (order_id, event_type, payload, created_at, attempts) values (?, ?, ?, ?, 0)",
+                events.stream()
+                        .map(e -> new Object[]{e.getOrderId(), e.getType().name(), e.getPayload(), Timestamp.valueOf(e.getCreatedAt())})
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * 미전달 이벤트를 id 순으로 (트랜잭션 안에서 호출, 다른 릴레이는 커밋까지 대기)
+     * 재시도를 maxAttempts번 넘긴 이벤트와 그 주문의 뒤 이벤트는 제외 -> 순서가 바뀌지 않도록 수동 처리
+     */
+    public List<OrderEvent> findPendingForUpdate(int limit, int maxAttempts) {
+        return jdbcTemplate.query(
+                "select e.id, e.order_id, e.event_type, e.payload, e.created_at from order_outbox_event e" +
+                        " where e.published_at is null" +
+                        " and not exists (select 1 from order_outbox_event d" +
+                        " where d.order_id = e.order_id and d.published_at is null and d.attempts >= ? and d.id <= e.id)" +
+                        " order by e.id" +
+                        " limit ? for update",
+                (rs, rowNum) -> new OrderEvent(
+                        rs.getLong(1), rs.getLong(2), OrderEventType.valueOf(rs.getString(3)),
+                        rs.getString(4), rs.getTimestamp(5).toLocalDateTime()),
+                maxAttempts, limit);
+    }
+
+    public void markPublished(List<Long> ids, LocalDateTime publishedAt) {
+        jdbcTemplate.batchUpdate(
+                "update order_outbox_event set published_at = ? where id = ?",
+                ids.stream()
+                        .map(id -> new Object[]{Timestamp.valueOf(publishedAt), id})
+                        .collect(Collectors.toList()));
+    }
+
+    public void recordFailure(Long id, String error) {
+        jdbcTemplate.update(
+                "update order_outbox_event set attempts = attempts + 1, last_error = ? where id = ?",
+                error, id);
+    }
+
+    // 미전달 이벤트 수, 가장 오래된 미전달 이벤트 생성 시각 (지연 지표)
+    public Backlog findBacklog() {
+        return jdbcTemplate.queryForObject(
+                "select count(*), min(created_at) from order_outbox_event where published_at is null",
+                (rs, rowNum) -> new Backlog(
+                        rs.getLong(1),
+                        Optional.ofNullable(rs.getTimestamp(2)).map(Timestamp::toLocalDateTime).orElse(null)));
+    }
+
+    public int deletePublishedBefore(LocalDateTime before) {
+        return jdbcTemplate.update(
+                "delete from order_outbox_event where published_at < ?", Timestamp.valueOf(before));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class NewEvent {
+        private Long orderId;
+        private OrderEventType type;
+        private String payload;
+        private LocalDateTime createdAt;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Backlog {
+        private long pending;
+        private LocalDateTime oldestCreatedAt;
+    }
+}
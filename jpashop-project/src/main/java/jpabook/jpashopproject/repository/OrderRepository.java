@@ -1,23 +1,72 @@
 package jpabook.jpashopproject.repository;
 
+import jpabook.jpashopproject.domain.DeliveryStatus;
 import jpabook.jpashopproject.domain.Member;
 import jpabook.jpashopproject.domain.Order;
+import jpabook.jpashopproject.domain.OrderCursor;
 import jpabook.jpashopproject.domain.OrderSearch;
+import jpabook.jpashopproject.domain.OrderStatus;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.LockModeType;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
 
+    // 검색 조건 조합별 named query 이름 (인덱스 = 주문 상태 1 | 회원 이름 2)
+    private static final String[] SEARCH_QUERY_NAMES = {
+            "Order.search",
+            "Order.searchByStatus",
+            "Order.searchByMemberName",
+            "Order.searchByStatusAndMemberName"
+    };
+
     private final EntityManager em;
+    private final EntityManagerFactory emf;
+
+    /**
+     * 검색 조건 조합(4가지)마다 쿼리를 미리 만들어 named query로 등록
+     * -> 검색할 때마다 JPQL 문자열을 만들고 파싱할 필요 없이 바로 실행
+     */
+    @PostConstruct
+    public void registerSearchQueries() {
+        EntityManager registerEm = emf.createEntityManager();
+
+        try {
+            for (int mask = 0; mask < SEARCH_QUERY_NAMES.length; mask++) {
+                //language=JPAQL
+                String jpql = "select o From Order o join o.member m";
+
+                if (mask == 1) {
+                    jpql += " where o.status = :status";
+                } else if (mask == 2) {
+                    jpql += " where m.name like :name";
+                } else if (mask == 3) {
+                    jpql += " where o.status = :status and m.name like :name";
+                }
+
+                TypedQuery<Order> query = registerEm.createQuery(jpql, Order.class).setMaxResults(1000); //최대 1000건
+                emf.addNamedQuery(SEARCH_QUERY_NAMES[mask], query);
+            }
+        } finally {
+            registerEm.close();
+        }
+    }
 
     public void save(Order order) {
         em.persist(order);
@@ -27,6 +76,24 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
+    // findAllString과 같은 결과 -> 조건 조합에 맞는 미리 등록된 쿼리 사용
+    public List<Order> findAll(OrderSearch orderSearch) {
+        boolean hasStatus = orderSearch.getOrderStatus() != null;
+        boolean hasMemberName = StringUtils.hasText(orderSearch.getMemberName());
+
+        int mask = (hasStatus ? 1 : 0) | (hasMemberName ? 2 : 0);
+        TypedQuery<Order> query = em.createNamedQuery(SEARCH_QUERY_NAMES[mask], Order.class);
+
+        if (hasStatus) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (hasMemberName) {
+            query.setParameter("name", orderSearch.getMemberName());
+        }
+
+        return query.getResultList();
+    }
+
     public List<Order> findAllString(OrderSearch orderSearch) {
         //language=JPAQL
         String jpql = "select o From Order o join o.member m";
@@ -118,5 +185,90 @@ public class OrderRepository {
                 .setMaxResults(limit)
                 .getResultList();
     }
-}
 
+    // 키셋 페이징 -> offset 만큼 읽고 버리지 않고 (orderDate, id) 인덱스에서 커서 다음 위치부터 바로 읽음
+    public List<Order> findAllWithMemberDeliveryAfter(OrderCursor cursor, int limit) {
+        if (cursor == null) {
+            return em.createQuery(
+                            "select o from Order o" +
+                                    " join fetch o.member m" +
+                                    " join fetch o.delivery d" +
+                                    " where o.orderDate is not null" +
+                                    " order by o.orderDate, o.id", Order.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+
+        return em.createQuery(
+                        "select o from Order o" +
+                                " join fetch o.member m" +
+                                " join fetch o.delivery d" +
+                                " where o.orderDate > :orderDate" +
+                                " or (o.orderDate = :orderDate and o.id > :orderId)" +
+                                " order by o.orderDate, o.id", Order.class)
+                .setParameter("orderDate", cursor.getOrderDate())
+                .setParameter("orderId", cursor.getOrderId())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 취소할 수 있는 주문 id (주문 상태이고 배송 완료 전) - 동시에 취소하지 못하도록 주문 row에 락
+     * 배송 상태는 서브쿼리로 확인 -> 락은 orders에만 걸림
+     */
+    public List<Long> findCancelableIdsForUpdate(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        return em.createQuery(
+                        "select o.id from Order o" +
+                                " where o.id in :orderIds" +
+                                " and o.status = :order" +
+                                " and not exists (select d.id from Delivery d where d.id = o.delivery.id and d.status = :comp)" +
+                                " order by o.id", Long.class)
+                .setParameter("orderIds", orderIds)
+                .setParameter("order", OrderStatus.ORDER)
+                .setParameter("comp", DeliveryStatus.COMP)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    /**
+     * 주문 상품 수량을 상품별로 합산 (itemId 순)
+     */
+    public Map<Long, Integer> sumOrderItemCountByItem(Collection<Long> orderIds) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        if (orderIds.isEmpty()) {
+            return quantities;
+        }
+
+        em.createQuery(
+                        "select oi.item.id, sum(oi.count) from OrderItem oi" +
+                                " where oi.order.id in :orderIds" +
+                                " group by oi.item.id", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList()
+                .forEach(row -> quantities.put((Long) row[0], ((Number) row[1]).intValue()));
+
+        return quantities;
+    }
+
+    /**
+     * 주문 상태를 update 한번으로 취소로 변경
+     */
+    public void cancelAll(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        em.createQuery("update Order o set o.status = :cancel where o.id in :orderIds")
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+
+        // 영속성 컨텍스트에 있는 주문은 상태를 다시 읽음 (orderItems, delivery 까지 cascade)
+        Set<Long> ids = new HashSet<>(orderIds);
+        ManagedEntities.refresh(em, Order.class, o -> ids.contains(o.getId()), Map.of());
+    }
+}
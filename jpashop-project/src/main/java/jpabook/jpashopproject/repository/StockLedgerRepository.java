@@ -0,0 +1,128 @@
+package jpabook.jpashopproject.repository;
+
+import jpabook.jpashopproject.domain.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerRepository {
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemRepository itemRepository;
+
+    /**
+     * 실제 재고 = item.stockQuantity + 아직 반영되지 않은 pendingStock 합계
+     */
+    public Optional<Integer> findAvailableStock(Long itemId) {
+        return jdbcTemplate.queryForList(
+                        "select i.stock_quantity" +
+                                " + coalesce((select sum(oi.pending_stock) from order_item oi where oi.item_id = i.item_id), 0)" +
+                                " from item i" +
+                                " where i.item_id = ?", Integer.class, itemId)
+                .stream()
+                .findFirst();
+    }
+
+    // flush와 동시에 실행될 수 있으므로 값을 덮어쓰지 않고 더함
+    public void addPendingStock(Long orderItemId, int quantity) {
+        em.createQuery(
+                        "update OrderItem oi" +
+                                " set oi.pendingStock = oi.pendingStock + :quantity" +
+                                " where oi.id = :id")
+                .setParameter("quantity", quantity)
+                .setParameter("id", orderItemId)
+                .executeUpdate();
+
+        // 영속성 컨텍스트에 있는 주문 상품은 pendingStock을 다시 읽음
+        ManagedEntities.refresh(em, OrderItem.class, oi -> orderItemId.equals(oi.getId()), Map.of());
+    }
+
+    /**
+     * 주문 일괄 취소 - 재고 원장 상품의 주문 상품 수량을 update 한번으로 pendingStock에 더함
+     */
+    public void addPendingStockByOrders(Collection<Long> orderIds, Collection<Long> itemIds) {
+        if (orderIds.isEmpty() || itemIds.isEmpty()) {
+            return;
+        }
+
+        em.createQuery(
+                        "update OrderItem oi" +
+                                " set oi.pendingStock = oi.pendingStock + oi.count" +
+                                " where oi.order.id in :orderIds" +
+                                " and oi.item.id in :itemIds")
+                .setParameter("orderIds", orderIds)
+                .setParameter("itemIds", itemIds)
+                .executeUpdate();
+
+        // 영속성 컨텍스트에 있는 주문 상품은 pendingStock을 다시 읽음
+        Set<Long> orders = new HashSet<>(orderIds);
+        Set<Long> items = new HashSet<>(itemIds);
+        ManagedEntities.refresh(em, OrderItem.class,
+                oi -> orders.contains(oi.getOrder().getId()) && items.contains(oi.getItem().getId()), Map.of());
+    }
+
+    /**
+     * 반영되지 않은 pendingStock을 item 테이블에 반영 (트랜잭션 안에서 호출)
+     * 상품별로 합쳐서 update 한번씩 -> JDBC batch
+     * 반영한 만큼만 pendingStock에서 빼기 때문에 그 사이에 들어온 취소도 잃어버리지 않음
+     * @return 처리한 주문 상품 수
+     */
+    public int flushPendingStock(int batchSize) {
+        List<PendingStock> pendingStocks = jdbcTemplate.query(
+                "select order_item_id, item_id, pending_stock from order_item" +
+                        " where pending_stock <> 0" +
+                        " order by order_item_id" +
+                        " limit ? for update",
+                (rs, rowNum) -> new PendingStock(rs.getLong("order_item_id"), rs.getLong("item_id"), rs.getInt("pending_stock")),
+                batchSize);
+
+        if (pendingStocks.isEmpty()) {
+            return 0;
+        }
+
+        // item id 순서로 update -> 동시에 flush 해도 데드락 x
+        Map<Long, Integer> quantityByItem = pendingStocks.stream()
+                .collect(Collectors.groupingBy(PendingStock::getItemId, TreeMap::new,
+                        Collectors.summingInt(PendingStock::getQuantity)));
+
+        jdbcTemplate.batchUpdate(
+                "update item set stock_quantity = stock_quantity + ?, version = version + 1 where item_id = ?",
+                quantityByItem.entrySet().stream()
+                        .map(e -> new Object[]{e.getValue(), e.getKey()})
+                        .collect(Collectors.toList()));
+
+        jdbcTemplate.batchUpdate(
+                "update order_item set pending_stock = pending_stock - ? where order_item_id = ?",
+                pendingStocks.stream()
+                        .map(p -> new Object[]{p.getQuantity(), p.getOrderItemId()})
+                        .collect(Collectors.toList()));
+
+        // JDBC로 직접 바꿨으므로 하이버네이트가 모름 -> 바뀐 상품만 2차 캐시에서 지움
+        itemRepository.evictAfterCompletion(quantityByItem.keySet());
+
+        return pendingStocks.size();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class PendingStock {
+        private Long orderItemId;
+        private Long itemId;
+        private int quantity;
+    }
+}
@@ -0,0 +1,104 @@
+package jpabook.jpashopproject.repository.order.query;
+
+import java.util.Arrays;
+
+/**
+ * long 키 전용 해시맵 (open addressing, linear probing)
+ * HashMap<Long, V>와 달리 키를 박싱하지 않고 Entry 객체도 만들지 않음
+ * 키 0은 빈 칸 표시로 쓰므로 따로 보관 / 삭제는 지원하지 않음
+ */
+class LongObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    LongObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : null;
+        }
+
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    void put(long key, V value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                size++;
+            }
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+
+        if (++size > (mask + 1) * LOAD_FACTOR) {
+            resize();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int indexOf(long key) {
+        // 연속된 id가 한쪽에 몰리지 않도록 섞음 (fibonacci hashing)
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        int capacity = oldKeys.length << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int index = indexOf(oldKeys[i]);
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+
+        Arrays.fill(oldValues, null);
+    }
+}
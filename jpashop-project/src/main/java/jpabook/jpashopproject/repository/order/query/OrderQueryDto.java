@@ -14,14 +14,16 @@ public class OrderQueryDto {
     private String name;
     private LocalDateTime orderDate;
     private OrderStatus orderStatus;
+    private int totalPrice;
     private Address address;
     private List<OrderItemQueryDto> orderItems;
 
-    public OrderQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address) {
+    public OrderQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, int totalPrice, Address address) {
         this.orderId = orderId;
         this.name = name;
         this.orderDate = orderDate;
         this.orderStatus = orderStatus;
+        this.totalPrice = totalPrice;
         this.address = address;
     }
 }
@@ -0,0 +1,215 @@
+package jpabook.jpashopproject.repository.order.query;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import jpabook.jpashopproject.domain.Address;
+import jpabook.jpashopproject.domain.OrderCursor;
+import jpabook.jpashopproject.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OrderQueryRepository.findAllByDto_optimization()과 같은 결과를 SQL로 직접 조회
+ * in 절 대신 order id 순으로 정렬한 flat 조인 한번 -> SQL이 항상 같으므로 statement 캐시를 그대로 사용
+ * order id가 바뀔 때마다 새 주문을 시작하므로 Map으로 묶을 필요도 없음
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderQueryJdbcRepository {
+
+    private static final String FIND_ORDERS_WITH_ITEMS =
+            "select o.order_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode," +
+                    " i.name, oi.order_price, oi.count, o.total_price" +
+                    " from orders o" +
+                    " join member m on m.member_id = o.member_id" +
+                    " join delivery d on d.delivery_id = o.delivery_id" +
+                    " left join order_item oi on oi.order_id = o.order_id" +
+                    " left join item i on i.item_id = oi.item_id" +
+                    " order by o.order_id";
+
+    // 키셋 페이징 - 주문을 먼저 limit 만큼 자른 뒤 주문 상품과 조인
+    private static final String PAGE_COLUMNS =
+            "select o.order_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode," +
+                    " i.name, oi.order_price, oi.count, o.total_price" +
+                    " from (select order_id, member_id, delivery_id, order_date, status, total_price from orders";
+
+    private static final String PAGE_JOINS =
+            " order by order_date, order_id limit ?) o" +
+                    " join member m on m.member_id = o.member_id" +
+                    " join delivery d on d.delivery_id = o.delivery_id" +
+                    " left join order_item oi on oi.order_id = o.order_id" +
+                    " left join item i on i.item_id = oi.item_id" +
+                    " order by o.order_date, o.order_id";
+
+    // 주문일이 없는 주문은 커서로 가리킬 수 없음 -> 페이지에서 제외 (OrderCursor)
+    private static final String FIRST_PAGE = PAGE_COLUMNS + " where order_date is not null" + PAGE_JOINS;
+
+    private static final String NEXT_PAGE = PAGE_COLUMNS +
+            " where order_date > ? or (order_date = ? and order_id > ?)" + PAGE_JOINS;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<OrderQueryDto> findAllByDto_optimization() {
+        OrderRowHandler handler = new OrderRowHandler();
+        jdbcTemplate.query(con -> con.prepareStatement(FIND_ORDERS_WITH_ITEMS), handler);
+        return handler.result;
+    }
+
+    /**
+     * cursor 다음 주문 limit 개를 v3.2와 같은 모양의 JSON 배열 원소로 generator에 바로 씀
+     * 엔티티, DTO를 만들지 않고 ResultSet 값을 그대로 출력 -> row 마다 생기는 객체는 JDBC가 돌려주는 값 정도
+     *
+     * @return 다음 페이지 커서 (마지막 페이지면 null)
+     */
+    public OrderCursor writeOrdersAfter(OrderCursor cursor, int limit, int fetchSize, JsonGenerator generator) {
+        OrderJsonWriter writer = new OrderJsonWriter(generator);
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(cursor == null ? FIRST_PAGE : NEXT_PAGE);
+            int index = 1;
+            if (cursor != null) {
+                Timestamp orderDate = Timestamp.valueOf(cursor.getOrderDate());
+                ps.setTimestamp(index++, orderDate);
+                ps.setTimestamp(index++, orderDate);
+                ps.setLong(index++, cursor.getOrderId());
+            }
+            ps.setInt(index, limit);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, writer);
+
+        writer.finish();
+
+        return writer.count < limit ? null : new OrderCursor(writer.lastOrderDate, writer.lastOrderId);
+    }
+
+    private static class OrderJsonWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+
+        // 날짜 문자열 변환용 버퍼 재사용
+        private final StringBuilder dateBuilder = new StringBuilder(32);
+        private final char[] dateChars = new char[32];
+
+        private int count;
+        private long lastOrderId;
+        private LocalDateTime lastOrderDate;
+
+        OrderJsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                long orderId = rs.getLong(1);
+
+                if (count == 0 || orderId != lastOrderId) {
+                    if (count > 0) {
+                        endOrder();
+                    }
+                    count++;
+                    lastOrderId = orderId;
+                    lastOrderDate = rs.getObject(3, LocalDateTime.class);
+                    startOrder(rs, orderId);
+                }
+
+                // left join -> orderItem이 없는 주문은 item 컬럼이 null
+                String itemName = rs.getString(8);
+                int orderPrice = rs.getInt(9);
+                if (!rs.wasNull()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("itemName", itemName);
+                    generator.writeNumberField("orderPrice", orderPrice);
+                    generator.writeNumberField("count", rs.getInt(10));
+                    generator.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() {
+            try {
+                if (count > 0) {
+                    endOrder();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void startOrder(ResultSet rs, long orderId) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("orderId", orderId);
+            generator.writeStringField("name", rs.getString(2));
+
+            generator.writeFieldName("orderDate");
+            if (lastOrderDate == null) {
+                generator.writeNull();
+            } else {
+                dateBuilder.setLength(0);
+                DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(lastOrderDate, dateBuilder);
+                dateBuilder.getChars(0, dateBuilder.length(), dateChars, 0);
+                generator.writeString(dateChars, 0, dateBuilder.length());
+            }
+
+            generator.writeStringField("orderStatus", rs.getString(4));
+            generator.writeNumberField("totalPrice", rs.getInt(11));
+
+            generator.writeObjectFieldStart("address");
+            generator.writeStringField("city", rs.getString(5));
+            generator.writeStringField("street", rs.getString(6));
+            generator.writeStringField("zipcode", rs.getString(7));
+            generator.writeEndObject();
+
+            generator.writeArrayFieldStart("orderItems");
+        }
+
+        private void endOrder() throws IOException {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static class OrderRowHandler implements RowCallbackHandler {
+
+        private final List<OrderQueryDto> result = new ArrayList<>();
+        private OrderQueryDto current;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong(1);
+
+            if (current == null || current.getOrderId() != orderId) {
+                current = new OrderQueryDto(orderId,
+                        rs.getString(2),
+                        rs.getObject(3, LocalDateTime.class),
+                        OrderStatus.valueOf(rs.getString(4)),
+                        rs.getInt(11),
+                        new Address(rs.getString(5), rs.getString(6), rs.getString(7)));
+                current.setOrderItems(new ArrayList<>());
+                result.add(current);
+            }
+
+            // left join -> orderItem이 없는 주문은 item 컬럼이 null
+            String itemName = rs.getString(8);
+            int orderPrice = rs.getInt(9);
+            if (!rs.wasNull()) {
+                current.getOrderItems().add(new OrderItemQueryDto(current.getOrderId(), itemName, orderPrice, rs.getInt(10)));
+            }
+        }
+    }
+}
@@ -1,11 +1,28 @@
 package jpabook.jpashopproject.repository.order.query;
 
+import jpabook.jpashopproject.domain.Address;
+import jpabook.jpashopproject.domain.OrderStatus;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Repository
@@ -13,6 +30,11 @@ import java.util.stream.Collectors;
 public class OrderQueryRepository {
 
     private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final ThreadPoolTaskExecutor orderQueryExecutor;
+
+    @Value("${jpashop.order-query.chunk-size:1000}")
+    private int chunkSize;
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         List<OrderQueryDto> result = findOrders();
@@ -36,8 +58,12 @@ public class OrderQueryRepository {
     }
 
     private List<OrderQueryDto> findOrders() {
-        return em.createQuery(
-                        "select new jpabook.jpashopproject.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+        return findOrders(em);
+    }
+
+    private List<OrderQueryDto> findOrders(EntityManager entityManager) {
+        return entityManager.createQuery(
+                        "select new jpabook.jpashopproject.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, o.totalPrice, d.address)" +
                                 " from Order o" +
                                 " join o.member m" +
                                 " join o.delivery d", OrderQueryDto.class)
@@ -62,6 +88,120 @@ public class OrderQueryRepository {
         return result;
     }
 
+    /**
+     * v5는 모든 orderId를 in 절 하나에 넣음 -> 주문이 많으면 드라이버/DB의 in 절 제한에 걸리고 파싱 비용도 커짐
+     * => orderId를 chunkSize 씩 나눠서 여러 스레드에서 동시에 조회 후 orderId:orderItems Map으로 합침
+     * 스레드마다 EntityManager(커넥션)를 따로 사용 -> 스레드 수는 커넥션 풀 크기보다 작게
+     *
+     * 주문 조회도 OSIV EntityManager가 아닌 새 EntityManager로 하고 닫은 뒤에 나눠서 조회
+     * -> OSIV EntityManager는 요청이 끝날 때까지 커넥션을 잡고 있음
+     *    요청 스레드가 커넥션을 잡은 채로 작업 스레드를 기다리면 동시 요청이 많을 때 풀이 바닥나서 모두 대기 (커넥션 타임아웃)
+     */
+    public List<OrderQueryDto> findAllByDto_chunked() {
+        List<OrderQueryDto> result = inNewEntityManager(this::findOrders);
+        List<Long> orderIds = getOrderIds(result);
+
+        List<CompletableFuture<List<OrderItemQueryDto>>> futures = new ArrayList<>();
+        for (int from = 0; from < orderIds.size(); from += chunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> getOrderItemsInNewEntityManager(chunk), orderQueryExecutor));
+        }
+
+        Map<Long, List<OrderItemQueryDto>> findOrderItemMap = new HashMap<>();
+        for (CompletableFuture<List<OrderItemQueryDto>> future : futures) {
+            for (OrderItemQueryDto orderItem : join(future)) {
+                findOrderItemMap.computeIfAbsent(orderItem.getOrderId(), k -> new ArrayList<>()).add(orderItem);
+            }
+        }
+
+        result.forEach(o -> o.setOrderItems(findOrderItemMap.get(o.getOrderId())));
+
+        return result;
+    }
+
+    // 다른 스레드에서 실행 -> 요청 스레드의 EntityManager(OSIV)는 사용할 수 없음
+    private List<OrderItemQueryDto> getOrderItemsInNewEntityManager(List<Long> orderIds) {
+        return inNewEntityManager(chunkEm -> chunkEm.createQuery(
+                        "select new jpabook.jpashopproject.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                                " from OrderItem oi" +
+                                " join oi.item i" +
+                                " where oi.order.id in :orderIds", OrderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList());
+    }
+
+    // 조회가 끝나면 바로 닫음 -> 커넥션 반납
+    private <T> T inNewEntityManager(Function<EntityManager, T> query) {
+        EntityManager newEm = emf.createEntityManager();
+
+        try {
+            return query.apply(newEm);
+        } finally {
+            newEm.close();
+        }
+    }
+
+    /**
+     * v4(1 + N), v5(1 + 1)와 달리 Order-Member-Delivery-OrderItem-Item 을 flat 하게 조인해서 쿼리 한번으로 조회
+     * row를 forward-only 커서로 읽으면서 order id(long) 기준으로 바로 묶음
+     * -> List<row> 전체나 groupingBy용 Map<Long, List>를 따로 만들지 않음
+     */
+    @Transactional(readOnly = true)
+    public List<OrderQueryDto> findAllByDto_flat(int fetchSize) {
+        Query<?> query = em.createQuery(
+                        "select o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count, o.totalPrice" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " left join o.orderItems oi" +
+                                " left join oi.item i", Object[].class)
+                .unwrap(Query.class);
+
+        ScrollableResults rows = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        List<OrderQueryDto> result = new ArrayList<>();
+        LongObjectMap<OrderQueryDto> orders = new LongObjectMap<>(fetchSize);
+
+        try {
+            while (rows.next()) {
+                Object[] row = rows.get();
+                long orderId = (Long) row[0];
+
+                OrderQueryDto order = orders.get(orderId);
+                if (order == null) {
+                    order = new OrderQueryDto(orderId, (String) row[1], (LocalDateTime) row[2], (OrderStatus) row[3], (Integer) row[8], (Address) row[4]);
+                    order.setOrderItems(new ArrayList<>());
+                    orders.put(orderId, order);
+                    result.add(order);
+                }
+
+                // left join -> orderItem이 없는 주문은 item 컬럼이 null
+                if (row[6] != null) {
+                    order.getOrderItems().add(new OrderItemQueryDto(order.getOrderId(), (String) row[5], (Integer) row[6], (Integer) row[7]));
+                }
+            }
+        } finally {
+            rows.close();
+        }
+
+        return result;
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     private List<OrderItemQueryDto> getOrderItems(List<Long> orderIds) {
         List<OrderItemQueryDto> orderItems = em.createQuery(
                         "select new jpabook.jpashopproject.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
@@ -79,4 +219,57 @@ public class OrderQueryRepository {
                 .collect(Collectors.toList());
         return orderIds;
     }
+
+    /**
+     * 전체 주문을 List로 모으지 않고 한 주문씩 consumer에 넘겨줌 (export 용)
+     * order-orderItem을 order id 순으로 flat 하게 조인해서 forward-only 커서로 읽고
+     * order id가 바뀔 때마다 완성된 주문을 넘김 -> 메모리에는 항상 주문 1건만 올라감
+ * 스칼라 프로젝션이라 영속성 컨텍스트에 엔티티가 쌓이지 않음 (중간에 비울 필요 x)
+     */
+    @Transactional(readOnly = true)
+    public void streamOrderQueryDtos(int fetchSize, Consumer<OrderQueryDto> consumer) {
+        Query<?> query = em.createQuery(
+                        "select o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count, o.totalPrice" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " left join o.orderItems oi" +
+                                " left join oi.item i" +
+                                " order by o.id", Object[].class)
+                .unwrap(Query.class);
+
+        ScrollableResults rows = query
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+
+        try {
+            OrderQueryDto current = null;
+
+            while (rows.next()) {
+                Object[] row = rows.get();
+                Long orderId = (Long) row[0];
+
+                if (current == null || !current.getOrderId().equals(orderId)) {
+                    if (current != null) {
+                        consumer.accept(current);
+                    }
+
+                    current = new OrderQueryDto(orderId, (String) row[1], (LocalDateTime) row[2], (OrderStatus) row[3], (Integer) row[8], (Address) row[4]);
+                    current.setOrderItems(new ArrayList<>());
+                }
+
+                // left join -> orderItem이 없는 주문은 item 컬럼이 null
+                if (row[6] != null) {
+                    current.getOrderItems().add(new OrderItemQueryDto(orderId, (String) row[5], (Integer) row[6], (Integer) row[7]));
+                }
+            }
+
+            if (current != null) {
+                consumer.accept(current);
+            }
+        } finally {
+            rows.close();
+        }
+    }
 }
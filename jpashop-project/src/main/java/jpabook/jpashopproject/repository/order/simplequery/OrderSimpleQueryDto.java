@@ -14,6 +14,7 @@ public class OrderSimpleQueryDto {
     private String name;
     private LocalDateTime orderDate;
     private OrderStatus orderStatus;
+    private int totalPrice;
     private Address address;
 
     public OrderSimpleQueryDto(Order order) {
@@ -21,14 +22,16 @@ public class OrderSimpleQueryDto {
         name = order.getMember().getName();
         orderDate = order.getOrderDate();
         orderStatus = order.getStatus();
+        totalPrice = order.getTotalPrice();
         address = order.getDelivery().getAddress();
     }
 
-    public OrderSimpleQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address) {
+    public OrderSimpleQueryDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, int totalPrice, Address address) {
         this.orderId = orderId;
         this.name = name;
         this.orderDate = orderDate;
         this.orderStatus = orderStatus;
+        this.totalPrice = totalPrice;
         this.address = address;
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package jpabook.jpashopproject.repository.order.simplequery;
+
+import jpabook.jpashopproject.domain.Address;
+import jpabook.jpashopproject.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * OrderSimpleQueryRepository.findOrderDtos()와 같은 결과를 SQL로 직접 조회
+ * JPQL 변환, 영속성 컨텍스트, new 생성자 리플렉션을 거치지 않고 ResultSet에서 바로 DTO를 만듦
+ * 항상 같은 SQL을 PreparedStatement로 실행 -> 드라이버의 statement 캐시 사용 (cachePrepStmts)
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSimpleQueryJdbcRepository {
+
+    private static final String FIND_ORDER_DTOS =
+            "select o.order_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode, o.total_price" +
+                    " from orders o" +
+                    " join member m on m.member_id = o.member_id" +
+                    " join delivery d on d.delivery_id = o.delivery_id";
+
+    private static final RowMapper<OrderSimpleQueryDto> ROW_MAPPER = (rs, rowNum) -> new OrderSimpleQueryDto(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getObject(3, LocalDateTime.class),
+            OrderStatus.valueOf(rs.getString(4)),
+            rs.getInt(8),
+            new Address(rs.getString(5), rs.getString(6), rs.getString(7)));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<OrderSimpleQueryDto> findOrderDtos() {
+        return jdbcTemplate.query(con -> con.prepareStatement(FIND_ORDER_DTOS), ROW_MAPPER);
+    }
+}
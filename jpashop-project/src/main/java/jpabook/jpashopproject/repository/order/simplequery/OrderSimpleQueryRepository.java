@@ -2,9 +2,11 @@ package jpabook.jpashopproject.repository.order.simplequery;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.Collections;
 import java.util.List;
 
 @Slf4j
@@ -12,18 +14,28 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderSimpleQueryRepository {
 
+    // 주문 요약 쿼리 캐시 (ehcache.xml의 TTL = 허용하는 최대 지연 시간)
+    public static final String ORDER_SUMMARY_REGION = "order-summary-query";
+
     private final EntityManager em;
 
+    /**
+     * 쿼리 캐시 사용 -> 같은 쿼리, 같은 파라미터면 DB를 거치지 않음
+     * orders, member, delivery 테이블이 변경되면 하이버네이트가 자동으로 무효화
+     * (캐시에는 컬럼 값만 저장되고 DTO는 조회할 때마다 새로 만들어짐)
+     */
     public List<OrderSimpleQueryDto> findOrderDtos() {
         List<OrderSimpleQueryDto> result = em.createQuery("select new" +
-                        " jpabook.jpashopproject.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                        " jpabook.jpashopproject.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, o.totalPrice, d.address)" +
                         " from Order o" +
                         " join o.member m" +
                         " join o.delivery d", OrderSimpleQueryDto.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, ORDER_SUMMARY_REGION)
                 .getResultList();
 
-        log.info("result = {}", result);
+        log.debug("order summary size = {}", result.size());
 
-        return result;
+        return Collections.unmodifiableList(result);
     }
 }
@@ -0,0 +1,15 @@
+package jpabook.jpashopproject.repository.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class DailySalesDto {
+
+    private LocalDate salesDate;
+    private long quantity;
+    private long revenue;
+}
@@ -0,0 +1,14 @@
+package jpabook.jpashopproject.repository.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemSalesDto {
+
+    private Long itemId;
+    private String itemName;
+    private long quantity;
+    private long revenue;
+}
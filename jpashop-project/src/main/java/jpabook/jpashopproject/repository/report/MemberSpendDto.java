@@ -0,0 +1,14 @@
+package jpabook.jpashopproject.repository.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MemberSpendDto {
+
+    // yyyyMM
+    private int month;
+    private long amount;
+    private int orderCount;
+}
@@ -0,0 +1,23 @@
+package jpabook.jpashopproject.repository.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 집계에 필요한 주문 상품 한 줄
+@Data
+@AllArgsConstructor
+public class SalesLine {
+
+    private Long orderId;
+    private Long memberId;
+    private LocalDateTime orderDate;
+    private Long itemId;
+    private int count;
+    private int orderPrice;
+
+    public long getRevenue() {
+        return (long) count * orderPrice;
+    }
+}
@@ -0,0 +1,166 @@
+package jpabook.jpashopproject.repository.report;
+
+import jpabook.jpashopproject.domain.OrderStatus;
+import jpabook.jpashopproject.domain.report.ItemDailySales;
+import jpabook.jpashopproject.domain.report.MemberMonthlySpend;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 판매 집계 테이블 (item_daily_sales, member_monthly_spend)
+ * 증감은 update -> 행이 없으면 insert (같은 트랜잭션에서 주문과 함께 커밋)
+ * 리포트 조회는 버킷 수만큼만 읽음 (주문 수와 무관)
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String UPDATE_ITEM_SALES =
+            "update item_daily_sales set quantity = quantity + ?, revenue = revenue + ?" +
+                    " where item_id = ? and sales_date = ?";
+    private static final String INSERT_ITEM_SALES =
+            "insert into item_daily_sales (quantity, revenue, item_id, sales_date) values (?, ?, ?, ?)";
+
+    private static final String UPDATE_MEMBER_SPEND =
+            "update member_monthly_spend set amount = amount + ?, order_count = order_count + ?" +
+                    " where member_id = ? and spend_month = ?";
+    private static final String INSERT_MEMBER_SPEND =
+            "insert into member_monthly_spend (amount, order_count, member_id, spend_month) values (?, ?, ?, ?)";
+
+    // 월 버킷 yyyyMM
+    private static final String SPEND_MONTH =
+            "extract(year from o.order_date) * 100 + extract(month from o.order_date)";
+
+    /**
+     * 주문 일괄 취소 - 취소할 주문의 주문 상품을 쿼리 한번으로 읽음
+     */
+    public List<SalesLine> findSalesLines(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        return em.createQuery(
+                        "select new jpabook.jpashopproject.repository.report.SalesLine(" +
+                                "o.id, o.member.id, o.orderDate, oi.item.id, oi.count, oi.orderPrice)" +
+                                " from OrderItem oi" +
+                                " join oi.order o" +
+                                " where o.id in :orderIds", SalesLine.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * 키 순서대로 호출해야 동시에 증감해도 데드락 x (SortedMap)
+     * value = {quantity, revenue}
+     */
+    public void addItemSales(Map<ItemDailySales.Key, long[]> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) ->
+                args.add(new Object[]{delta[0], delta[1], key.getItemId(), Date.valueOf(key.getSalesDate())}));
+        upsert(UPDATE_ITEM_SALES, INSERT_ITEM_SALES, args);
+    }
+
+    // value = {amount, orderCount}
+    public void addMemberSpend(Map<MemberMonthlySpend.Key, long[]> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) ->
+                args.add(new Object[]{delta[0], delta[1], key.getMemberId(), key.getSpendMonth()}));
+        upsert(UPDATE_MEMBER_SPEND, INSERT_MEMBER_SPEND, args);
+    }
+
+    // update를 batch로 보내고 갱신된 행이 없는 버킷만 insert
+    // 다른 트랜잭션이 먼저 insert 했으면 (중복 키) 다시 update
+    private void upsert(String update, String insert, List<Object[]> args) {
+        if (args.isEmpty()) {
+            return;
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(update, args);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 0) {
+                continue;
+            }
+            try {
+                jdbcTemplate.update(insert, args.get(i));
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(update, args.get(i));
+            }
+        }
+    }
+
+    /**
+     * 주문 테이블에서 집계를 처음부터 다시 만듦 (트랜잭션 안에서 호출)
+     * delete가 집계 행을 잠그므로 그 사이의 주문, 취소 증감은 커밋 뒤에 반영됨
+     */
+    public void rebuild() {
+        jdbcTemplate.update("delete from item_daily_sales");
+        jdbcTemplate.update("delete from member_monthly_spend");
+
+        jdbcTemplate.update(
+                "insert into item_daily_sales (item_id, sales_date, quantity, revenue)" +
+                        " select oi.item_id, cast(o.order_date as date), sum(oi.count), sum(oi.count * oi.order_price)" +
+                        " from order_item oi" +
+                        " join orders o on o.order_id = oi.order_id" +
+                        " where o.status = ?" +
+                        " group by oi.item_id, cast(o.order_date as date)", OrderStatus.ORDER.name());
+
+        jdbcTemplate.update(
+                "insert into member_monthly_spend (member_id, spend_month, amount, order_count)" +
+                        " select o.member_id, " + SPEND_MONTH + ", sum(o.total_price), count(*)" +
+                        " from orders o" +
+                        " where o.status = ?" +
+                        " group by o.member_id, " + SPEND_MONTH, OrderStatus.ORDER.name());
+    }
+
+    // 기간 내 판매 수량 상위 상품
+    public List<ItemSalesDto> findTopSellers(LocalDate from, LocalDate to, int limit) {
+        return jdbcTemplate.query(
+                "select s.item_id, i.name, sum(s.quantity) as quantity, sum(s.revenue) as revenue" +
+                        " from item_daily_sales s" +
+                        " join item i on i.item_id = s.item_id" +
+                        " where s.sales_date between ? and ?" +
+                        " group by s.item_id, i.name" +
+                        " order by quantity desc, s.item_id" +
+                        " limit ?",
+                (rs, rowNum) -> new ItemSalesDto(
+                        rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getLong(4)),
+                Date.valueOf(from), Date.valueOf(to), limit);
+    }
+
+    // 일별 매출
+    public List<DailySalesDto> findDailySales(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "select sales_date, sum(quantity), sum(revenue)" +
+                        " from item_daily_sales" +
+                        " where sales_date between ? and ?" +
+                        " group by sales_date" +
+                        " order by sales_date",
+                (rs, rowNum) -> new DailySalesDto(
+                        rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getLong(3)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // 회원의 월별 주문 금액
+    public List<MemberSpendDto> findMemberSpend(Long memberId) {
+        return jdbcTemplate.query(
+                "select spend_month, amount, order_count" +
+                        " from member_monthly_spend" +
+                        " where member_id = ?" +
+                        " order by spend_month",
+                (rs, rowNum) -> new MemberSpendDto(rs.getInt(1), rs.getLong(2), rs.getInt(3)),
+                memberId);
+    }
+}
@@ -0,0 +1,25 @@
+package jpabook.jpashopproject.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderRequest {
+
+    private Long memberId;
+    private List<OrderLine> lines = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderLine {
+        private Long itemId;
+        private int count;
+    }
+}
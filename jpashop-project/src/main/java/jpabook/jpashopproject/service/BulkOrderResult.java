@@ -0,0 +1,28 @@
+package jpabook.jpashopproject.service;
+
+import lombok.Getter;
+
+/**
+ * 대량 주문 결과 - 요청 순서(index)별 성공(orderId) / 실패(error)
+ */
+@Getter
+public class BulkOrderResult {
+
+    private final int index;
+    private final Long orderId;
+    private final String error;
+
+    private BulkOrderResult(int index, Long orderId, String error) {
+        this.index = index;
+        this.orderId = orderId;
+        this.error = error;
+    }
+
+    public static BulkOrderResult success(int index, Long orderId) {
+        return new BulkOrderResult(index, orderId, null);
+    }
+
+    public static BulkOrderResult failure(int index, String error) {
+        return new BulkOrderResult(index, null, error);
+    }
+}
@@ -0,0 +1,141 @@
+package jpabook.jpashopproject.service;
+
+import jpabook.jpashopproject.domain.Category;
+import jpabook.jpashopproject.domain.item.Item;
+import jpabook.jpashopproject.repository.CategoryRepository;
+import jpabook.jpashopproject.repository.ItemRepository;
+import jpabook.jpashopproject.service.category.CategoryTree;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * 카테고리 트리는 메모리에 들고 있음
+ * -> 부모/자식, 상품을 lazy 로딩으로 따라가며 단계마다 쿼리가 나가지 않음
+ * 서버 시작 시 쿼리 한번으로 전체를 읽고, 이후 변경은 커밋된 뒤 바뀐 부분만 반영
+ * 다른 서버에서 바꾼 카테고리는 주기적으로 전체를 다시 읽어서 반영 (jpashop.category.reload-interval-ms 만큼 늦을 수 있음)
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService implements SmartInitializingSingleton {
+
+    private final CategoryRepository categoryRepository;
+    private final ItemRepository itemRepository;
+
+    private volatile CategoryTree tree = CategoryTree.empty();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.category.reload-interval-ms:60000}",
+            initialDelayString = "${jpashop.category.reload-interval-ms:60000}")
+    public void reloadTree() {
+        reload();
+    }
+
+    @Transactional
+    public Long saveCategory(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+
+        if (parentId != null) {
+            categoryRepository.findOne(parentId).addChildCategory(category);
+        }
+
+        categoryRepository.save(category);
+
+        Long categoryId = category.getId();
+        afterCommit(t -> t.withCategory(categoryId, name, parentId));
+
+        return categoryId;
+    }
+
+    @Transactional
+    public void addChildCategory(Long parentId, Long childId) {
+        // 메모리 트리는 커밋 후에 바뀜 -> 동시에 옮기면 순환을 못 봄
+        // 옮길 카테고리와 새 부모의 조상을 락으로 잡고 DB 기준으로 확인
+        Category child = categoryRepository.findOneForUpdate(childId);
+        if (categoryRepository.isAncestorOrSelfForUpdate(childId, parentId)) {
+            throw new IllegalStateException("하위 카테고리를 부모로 지정할 수 없습니다.");
+        }
+
+        Category parent = categoryRepository.findOne(parentId);
+
+        if (child.getParent() != null) {
+            child.getParent().getChild().remove(child);
+        }
+        parent.addChildCategory(child);
+
+        String name = child.getName();
+        afterCommit(t -> t.withCategory(childId, name, parentId));
+    }
+
+    @Transactional
+    public void addItem(Long categoryId, Long itemId) {
+        // 이미 등록됐는지는 조인 테이블에서 확인 -> 카테고리의 상품 목록 전체를 읽지 않음
+        if (categoryRepository.existsItem(categoryId, itemId)) {
+            return;
+        }
+
+        Category category = categoryRepository.findOne(categoryId);
+        Item item = itemRepository.findOne(itemId);
+        categoryRepository.addItem(category, item);
+
+        afterCommit(t -> t.withItem(categoryId, itemId));
+    }
+
+    public CategoryTree getTree() {
+        return tree;
+    }
+
+    // 하위 카테고리까지 포함한 상품 -> 트리에서 상품 id를 모아 IN 쿼리 한번
+    public List<Item> findItemsUnder(Long categoryId) {
+        return itemRepository.findAllById(tree.itemIdsUnder(categoryId));
+    }
+
+    // afterCommit은 커밋 순서대로 실행된다는 보장이 없음 (부모보다 자식이 먼저, 이동 두개가 거꾸로)
+    // -> 적용할 수 없으면 데이터는 이미 커밋됐으므로 요청은 성공시키고 트리만 DB에서 다시 만듦
+    private synchronized void update(UnaryOperator<CategoryTree> change) {
+        try {
+            tree = change.apply(tree);
+        } catch (RuntimeException e) {
+            log.warn("카테고리 트리에 변경을 적용하지 못했습니다. DB에서 다시 읽습니다.", e);
+            try {
+                reload();
+            } catch (RuntimeException reloadFailure) {
+                log.error("카테고리 트리를 다시 읽지 못했습니다. 다음 주기에 다시 읽습니다.", reloadFailure);
+            }
+        }
+    }
+
+    // 읽는 동안 들어온 변경은 락을 기다렸다가 새 트리에 적용됨 (이미 반영된 변경을 다시 적용해도 결과는 같음)
+    private synchronized void reload() {
+        tree = CategoryTree.of(categoryRepository.findTreeRows());
+    }
+
+    private void afterCommit(UnaryOperator<CategoryTree> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(change);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(change);
+            }
+        });
+    }
+}
@@ -3,6 +3,7 @@ package jpabook.jpashopproject.service;
 import jpabook.jpashopproject.domain.item.Book;
 import jpabook.jpashopproject.domain.item.Item;
 import jpabook.jpashopproject.repository.ItemRepository;
+import jpabook.jpashopproject.service.stock.StockLedger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +16,7 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final StockLedger stockLedger;
 
     @Transactional
     public void saveItem(Item item) {
@@ -32,13 +34,18 @@ public class ItemService {
     @Transactional
     public void updateItem(Long id, String name, int price, int stockQuantity, String author, String isbn) {
         // 영속성 컨텍스트가 관리 -> 변경 감지 O
-        Book findItem = (Book) itemRepository.findOne(id);
+        // 주문은 SQL로 재고, 버전을 바꿈 -> row 락을 잡고 읽어야 커밋 시점에 버전 충돌 x
+        Book findItem = (Book) itemRepository.findOneForUpdate(id);
+        int delta = stockQuantity - findItem.getStockQuantity();
         findItem.setName(name);
         findItem.setPrice(price);
         findItem.setStockQuantity(stockQuantity);
         findItem.setAuthor(author);
         findItem.setIsbn(isbn);
 
+        // 재고 원장으로 관리하는 상품이면 커밋 후 원장에도 바뀐 만큼 반영
+        stockLedger.adjustAfterCommit(id, delta);
+
         // 트랜잭션이 끝나면 자동으로 커밋
     }
 }
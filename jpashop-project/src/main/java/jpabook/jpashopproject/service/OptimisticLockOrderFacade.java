@@ -0,0 +1,46 @@
+package jpabook.jpashopproject.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+/**
+ * 낙관적 락 주문 재시도
+ * 버전 충돌은 커밋 시점에 발생 -> 트랜잭션 밖에서 새 트랜잭션으로 다시 시도해야 함
+ * (이 클래스에는 @Transactional을 붙이면 안됨)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OptimisticLockOrderFacade {
+
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long BACKOFF_MILLIS = 10;
+
+    private final OrderService orderService;
+
+    public Long order(Long memberId, Long itemId, int count) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return orderService.orderWithVersion(memberId, itemId, count);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+
+                log.debug("optimistic lock conflict. itemId = {}, attempt = {}", itemId, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(BACKOFF_MILLIS * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("주문 재시도 중 인터럽트", e);
+        }
+    }
+}
@@ -2,14 +2,25 @@ package jpabook.jpashopproject.service;
 
 import jpabook.jpashopproject.domain.*;
 import jpabook.jpashopproject.domain.item.Item;
+import jpabook.jpashopproject.exception.NotEnoughStockException;
 import jpabook.jpashopproject.repository.ItemRepository;
 import jpabook.jpashopproject.repository.MemberRepository;
 import jpabook.jpashopproject.repository.OrderRepository;
+import jpabook.jpashopproject.repository.StockLedgerRepository;
+import jpabook.jpashopproject.service.outbox.OrderOutbox;
+import jpabook.jpashopproject.service.stock.StockLedger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
@@ -19,6 +30,10 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final StockLedger stockLedger;
+    private final SalesReportService salesReportService;
+    private final OrderOutbox orderOutbox;
 
     // 주문
     @Transactional
@@ -29,7 +44,7 @@ public class OrderService {
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = takeStock(item, count);
 //        OrderItem orderItem1 = new OrderItem();
 //        OrderItem orderItem2 = new OrderItem();
 //        OrderItem orderItem3 = new OrderItem();
@@ -42,6 +57,8 @@ public class OrderService {
         Order order = Order.createOrder(member, delivery, orderItem);
 
         orderRepository.save(order);    //orderItems, delivery -> CascadeType.ALL (영속성 전이)
+        salesReportService.recordOrders(List.of(order));
+        orderOutbox.orderPlaced(List.of(order));
         /**
          * 만약 delivery를 여러 엔티티에서 참조한다면??
          * -> CascadeType.ALL 사용하지 않는것이 좋음
@@ -49,15 +66,192 @@ public class OrderService {
          */
         return order.getId();
     }
+
+    // 주문 - 낙관적 락
+    // 변경 감지로 재고를 차감하고 커밋 시점에 Item 버전을 비교 -> 충돌하면 ObjectOptimisticLockingFailureException
+    // 재시도는 OptimisticLockOrderFacade
+    @Transactional
+    public Long orderWithVersion(Long memberId, Long itemId, int count) {
+        Member member = memberRepository.findOne(memberId);
+        Item item = itemRepository.findOne(itemId);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        OrderItem orderItem = stockLedger.isTracked(itemId)
+                ? takeStock(item, count)
+                : OrderItem.createOrderItem(item, item.getPrice(), count);
+        Order order = Order.createOrder(member, delivery, orderItem);
+
+        orderRepository.save(order);
+        salesReportService.recordOrders(List.of(order));
+        orderOutbox.orderPlaced(List.of(order));
+        return order.getId();
+    }
+
+    // 인기 상품 -> 재고 원장에서 락 없이 차감, item 테이블 반영은 나중에 (pendingStock)
+    // 그 외 -> 조건부 update 한번으로 차감 (동시 주문에도 갱신 분실 x)
+    private OrderItem takeStock(Item item, int count) {
+        if (stockLedger.isTracked(item.getId())) {
+            stockLedger.reserve(item.getId(), count);
+            return OrderItem.createPendingOrderItem(item, item.getPrice(), count);
+        }
+
+        itemRepository.decreaseStock(item, count);
+        return OrderItem.createReservedOrderItem(item, item.getPrice(), count);
+    }
+
+    /**
+     * 대량 주문
+     * 회원, 상품은 in 쿼리 한번씩으로 조회하고 insert는 커밋 시점에 JDBC batch로 모아서 보냄
+     * 주문 하나가 실패해도 (회원, 상품 없음, 재고 부족) 나머지 주문은 저장
+     */
+    @Transactional
+    public List<BulkOrderResult> orderBulk(List<BulkOrderRequest> requests) {
+        Set<Long> memberIds = requests.stream()
+                .map(BulkOrderRequest::getMemberId)
+                .collect(Collectors.toSet());
+        Set<Long> itemIds = requests.stream()
+                .flatMap(r -> r.getLines().stream())
+                .map(BulkOrderRequest.OrderLine::getItemId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Member> members = memberRepository.findAllById(memberIds).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+        // 다른 대량 주문과 같은 상품 재고를 덮어쓰지 않도록 row 락
+        Map<Long, Item> items = itemRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<BulkOrderResult> results = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                Order order = createBulkOrder(requests.get(i), members, items);
+                orderRepository.save(order);
+                orders.add(order);
+                results.add(BulkOrderResult.success(i, order.getId()));
+            } catch (IllegalArgumentException | NotEnoughStockException e) {
+                results.add(BulkOrderResult.failure(i, e.getMessage()));
+            }
+        }
+
+        // 판매 집계, 주문 이벤트는 성공한 주문을 모아서 한번에
+        salesReportService.recordOrders(orders);
+        orderOutbox.orderPlaced(orders);
+
+        return results;
+    }
+
+    // 재고를 먼저 모두 확인한 뒤에 차감 -> 실패한 주문이 재고를 일부만 가져가는 일 x
+    private Order createBulkOrder(BulkOrderRequest request, Map<Long, Member> members, Map<Long, Item> items) {
+        Member member = members.get(request.getMemberId());
+        if (member == null) {
+            throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId = " + request.getMemberId());
+        }
+        if (request.getLines().isEmpty()) {
+            throw new IllegalArgumentException("주문 상품이 없습니다.");
+        }
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (BulkOrderRequest.OrderLine line : request.getLines()) {
+            if (!items.containsKey(line.getItemId())) {
+                throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId = " + line.getItemId());
+            }
+            if (line.getCount() <= 0) {
+                throw new IllegalArgumentException("주문 수량은 1개 이상이어야 합니다.");
+            }
+            quantities.merge(line.getItemId(), line.getCount(), Integer::sum);
+        }
+
+        Map<Long, Integer> ledgerQuantities = new LinkedHashMap<>();
+        quantities.forEach((itemId, quantity) -> {
+            if (stockLedger.isTracked(itemId)) {
+                ledgerQuantities.put(itemId, quantity);
+            } else if (items.get(itemId).getStockQuantity() < quantity) {
+                throw new NotEnoughStockException("need more stock");
+            }
+        });
+        stockLedger.reserveAll(ledgerQuantities);
+
+        OrderItem[] orderItems = request.getLines().stream()
+                .map(line -> {
+                    Item item = items.get(line.getItemId());
+                    return stockLedger.isTracked(item.getId())
+                            ? OrderItem.createPendingOrderItem(item, item.getPrice(), line.getCount())
+                            : OrderItem.createOrderItem(item, item.getPrice(), line.getCount());
+                })
+                .toArray(OrderItem[]::new);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        return Order.createOrder(member, delivery, orderItems);
+    }
+
     // 취소
     @Transactional
     public void cancel(Long orderId) {
         Order order = orderRepository.findOne(orderId);
-        order.cancel();
+        // 이미 취소된 주문을 다시 취소해도 집계에서 두번 빼거나 이벤트를 다시 남기지 않음
+        boolean ordered = order.getStatus() == OrderStatus.ORDER;
+
+        // 재고 원장 상품이 아니면 주문과 같은 조건부 update로 반환 (변경 감지 x -> 동시 주문과 버전 충돌 x)
+        Map<Long, Integer> itemQuantities = new LinkedHashMap<>();
+        order.cancel(orderItem -> returnStock(orderItem, itemQuantities));
+        itemRepository.increaseStock(itemQuantities);
+
+        if (ordered) {
+            salesReportService.recordCancel(order);
+            orderOutbox.orderCancelled(List.of(orderId));
+        }
+    }
+
+    /**
+     * 주문 일괄 취소 (예: 배송 배치 실패)
+     * 주문마다 cancel()을 호출하면 주문 상품, 상품을 하나씩 읽고 update도 하나씩 나감 (1 + N)
+     * -> 취소 가능 여부 확인, 주문 상태 변경, 상품별 재고 반환을 각각 쿼리 한번(재고는 상품당 한번)으로 처리
+     * 이미 취소됐거나 배송 완료된 주문, 없는 주문은 건너뜀
+     * @return 취소한 주문 id
+     */
+    @Transactional
+    public List<Long> cancelBulk(Collection<Long> orderIds) {
+        List<Long> cancelable = orderRepository.findCancelableIdsForUpdate(orderIds);
+        if (cancelable.isEmpty()) {
+            return cancelable;
+        }
+
+        Map<Long, Integer> quantities = orderRepository.sumOrderItemCountByItem(cancelable);
+        orderRepository.cancelAll(cancelable);
+        salesReportService.recordCancelAll(cancelable);
+        orderOutbox.orderCancelled(cancelable);
+
+        // 재고 원장 상품 -> pendingStock, 원장으로 반환 / 나머지 -> item 테이블
+        Map<Long, Integer> ledgerQuantities = new LinkedHashMap<>();
+        Map<Long, Integer> itemQuantities = new LinkedHashMap<>();
+        quantities.forEach((itemId, quantity) ->
+                (stockLedger.isTracked(itemId) ? ledgerQuantities : itemQuantities).put(itemId, quantity));
+
+        stockLedgerRepository.addPendingStockByOrders(cancelable, ledgerQuantities.keySet());
+        ledgerQuantities.forEach(stockLedger::release);
+        itemRepository.increaseStock(itemQuantities);
+
+        return cancelable;
+    }
+
+    private void returnStock(OrderItem orderItem, Map<Long, Integer> itemQuantities) {
+        Long itemId = orderItem.getItem().getId();
+
+        if (stockLedger.isTracked(itemId)) {
+            stockLedgerRepository.addPendingStock(orderItem.getId(), orderItem.getCount());
+            stockLedger.release(itemId, orderItem.getCount());
+            return;
+        }
+
+        itemQuantities.merge(itemId, orderItem.getCount(), Integer::sum);
     }
 
     // 검색
     public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAllString(orderSearch);
+        return orderRepository.findAll(orderSearch);
     }
 }
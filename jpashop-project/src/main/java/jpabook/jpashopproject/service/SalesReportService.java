@@ -0,0 +1,127 @@
+package jpabook.jpashopproject.service;
+
+import jpabook.jpashopproject.domain.Order;
+import jpabook.jpashopproject.domain.report.ItemDailySales;
+import jpabook.jpashopproject.domain.report.MemberMonthlySpend;
+import jpabook.jpashopproject.repository.report.DailySalesDto;
+import jpabook.jpashopproject.repository.report.ItemSalesDto;
+import jpabook.jpashopproject.repository.report.MemberSpendDto;
+import jpabook.jpashopproject.repository.report.SalesLine;
+import jpabook.jpashopproject.repository.report.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 판매 리포트 (상품 x 일, 회원 x 월)
+ * 주문, 취소 시 같은 트랜잭션에서 집계 테이블을 증감 -> 조회는 orders, order_item을 읽지 않음
+ * 집계가 어긋났을 때 (직접 SQL 수정, 집계 도입 전 주문) rebuild()로 처음부터 다시 만듦
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class SalesReportService {
+
+    private static final Comparator<ItemDailySales.Key> ITEM_KEY_ORDER =
+            Comparator.comparing(ItemDailySales.Key::getItemId).thenComparing(ItemDailySales.Key::getSalesDate);
+    private static final Comparator<MemberMonthlySpend.Key> MEMBER_KEY_ORDER =
+            Comparator.comparing(MemberMonthlySpend.Key::getMemberId).thenComparingInt(MemberMonthlySpend.Key::getSpendMonth);
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    // 주문 생성 (OrderService의 트랜잭션 안에서 호출)
+    @Transactional
+    public void recordOrders(Collection<Order> orders) {
+        apply(toSalesLines(orders), 1);
+    }
+
+    // 취소 - 주문한 날짜, 월 버킷에서 뺌
+    @Transactional
+    public void recordCancel(Order order) {
+        apply(toSalesLines(List.of(order)), -1);
+    }
+
+    // 일괄 취소 - 주문 상품을 쿼리 한번으로 읽어서 버킷별로 합침
+    @Transactional
+    public void recordCancelAll(Collection<Long> orderIds) {
+        apply(salesRollupRepository.findSalesLines(orderIds), -1);
+    }
+
+    // 버킷별로 합친 뒤 키 순서대로 증감 -> 같은 버킷을 동시에 갱신해도 데드락 x
+    private void apply(List<SalesLine> lines, int sign) {
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        Map<ItemDailySales.Key, long[]> itemDeltas = new TreeMap<>(ITEM_KEY_ORDER);
+        Map<MemberMonthlySpend.Key, long[]> memberDeltas = new TreeMap<>(MEMBER_KEY_ORDER);
+        Set<Long> countedOrders = new HashSet<>();
+
+        for (SalesLine line : lines) {
+            long[] item = itemDeltas.computeIfAbsent(
+                    new ItemDailySales.Key(line.getItemId(), line.getOrderDate().toLocalDate()), k -> new long[2]);
+            item[0] += sign * line.getCount();
+            item[1] += sign * line.getRevenue();
+
+            long[] member = memberDeltas.computeIfAbsent(
+                    new MemberMonthlySpend.Key(line.getMemberId(), spendMonth(line.getOrderDate())), k -> new long[2]);
+            member[0] += sign * line.getRevenue();
+            if (countedOrders.add(line.getOrderId())) {
+                member[1] += sign;
+            }
+        }
+
+        salesRollupRepository.addItemSales(itemDeltas);
+        salesRollupRepository.addMemberSpend(memberDeltas);
+    }
+
+    private List<SalesLine> toSalesLines(Collection<Order> orders) {
+        return orders.stream()
+                .flatMap(o -> o.getOrderItems().stream()
+                        .map(oi -> new SalesLine(o.getId(), o.getMember().getId(), o.getOrderDate(),
+                                oi.getItem().getId(), oi.getCount(), oi.getOrderPrice())))
+                .collect(Collectors.toList());
+    }
+
+    static int spendMonth(LocalDateTime orderDate) {
+        return orderDate.getYear() * 100 + orderDate.getMonthValue();
+    }
+
+    /**
+     * 집계를 처음부터 다시 만듦
+     * 기본은 수동 실행 (POST /api/reports/rebuild), cron을 지정하면 주기적으로 실행
+     */
+    @Transactional
+    @Scheduled(cron = "${jpashop.sales-report.rebuild-cron:-}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        salesRollupRepository.rebuild();
+        log.info("판매 집계 재생성 {}ms", System.currentTimeMillis() - start);
+    }
+
+    public List<ItemSalesDto> findTopSellers(LocalDate from, LocalDate to, int limit) {
+        return salesRollupRepository.findTopSellers(from, to, limit);
+    }
+
+    public List<DailySalesDto> findDailySales(LocalDate from, LocalDate to) {
+        return salesRollupRepository.findDailySales(from, to);
+    }
+
+    public List<MemberSpendDto> findMemberSpend(Long memberId) {
+        return salesRollupRepository.findMemberSpend(memberId);
+    }
+}
@@ -0,0 +1,226 @@
+package jpabook.jpashopproject.service.category;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 카테고리 트리 (불변)
+ * 카테고리마다 루트부터의 경로와 하위 카테고리까지 포함한 상품 목록을 미리 계산해 둠
+ * 변경은 바뀐 카테고리와 그 조상만 새로 만든 트리를 반환 (나머지 노드는 그대로 공유)
+ */
+public class CategoryTree {
+
+    private static final CategoryTree EMPTY = new CategoryTree(Map.of());
+
+    private final Map<Long, Node> nodes;
+
+    private CategoryTree(Map<Long, Node> nodes) {
+        this.nodes = Collections.unmodifiableMap(nodes);
+    }
+
+    public static CategoryTree empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param rows {카테고리 id, 이름, 부모 id, 상품 id} - CategoryRepository.findTreeRows()
+     */
+    public static CategoryTree of(List<Object[]> rows) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        Map<Long, Long> parents = new HashMap<>();
+        Map<Long, Set<Long>> items = new HashMap<>();
+
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            names.put(id, (String) row[1]);
+            if (row[2] != null) {
+                parents.put(id, (Long) row[2]);
+            }
+
+            Set<Long> itemIds = items.computeIfAbsent(id, k -> new LinkedHashSet<>());
+            if (row[3] != null) {
+                itemIds.add((Long) row[3]);
+            }
+        }
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        parents.forEach((id, parentId) -> children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(id));
+
+        Map<Long, Node> nodes = new HashMap<>();
+        names.forEach((id, name) -> nodes.put(id, new Node(id, name, parents.get(id),
+                children.getOrDefault(id, List.of()), List.of(), items.get(id), Set.of())));
+
+        for (Node node : nodes.values()) {
+            if (node.parentId == null) {
+                rebuild(nodes, node.id, List.of());
+            }
+        }
+
+        return new CategoryTree(nodes);
+    }
+
+    public Optional<Node> find(Long categoryId) {
+        return Optional.ofNullable(nodes.get(categoryId));
+    }
+
+    public List<Node> roots() {
+        List<Node> roots = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (node.parentId == null) {
+                roots.add(node);
+            }
+        }
+        return roots;
+    }
+
+    // 하위 카테고리까지 포함한 상품 id
+    public Set<Long> itemIdsUnder(Long categoryId) {
+        return find(categoryId).map(Node::getSubtreeItemIds).orElse(Set.of());
+    }
+
+    // ancestorId가 categoryId 자신이거나 조상인지
+    public boolean isAncestorOrSelf(Long ancestorId, Long categoryId) {
+        return find(categoryId).map(node -> node.path.contains(ancestorId)).orElse(false);
+    }
+
+    /**
+     * 카테고리 추가 또는 부모 변경
+     */
+    public CategoryTree withCategory(Long categoryId, String name, Long parentId) {
+        if (parentId != null && !nodes.containsKey(parentId)) {
+            throw new IllegalArgumentException("부모 카테고리가 없습니다. parentId = " + parentId);
+        }
+        if (parentId != null && isAncestorOrSelf(categoryId, parentId)) {
+            throw new IllegalArgumentException("하위 카테고리를 부모로 지정할 수 없습니다.");
+        }
+
+        Map<Long, Node> copy = new HashMap<>(nodes);
+        Node old = copy.get(categoryId);
+
+        // 기존 부모에서 떼어냄
+        if (old != null && old.parentId != null) {
+            Node oldParent = copy.get(old.parentId);
+            List<Long> childIds = new ArrayList<>(oldParent.childIds);
+            childIds.remove(categoryId);
+            copy.put(oldParent.id, oldParent.withChildIds(childIds));
+            refreshItemsUpward(copy, oldParent.id);
+        }
+
+        Node node = old == null
+                ? new Node(categoryId, name, parentId, List.of(), List.of(), Set.of(), Set.of())
+                : new Node(categoryId, name, parentId, old.childIds, old.path, old.itemIds, old.subtreeItemIds);
+        copy.put(categoryId, node);
+
+        if (parentId == null) {
+            rebuild(copy, categoryId, List.of());
+            return new CategoryTree(copy);
+        }
+
+        // 새 부모에 붙임
+        Node parent = copy.get(parentId);
+        List<Long> childIds = new ArrayList<>(parent.childIds);
+        childIds.add(categoryId);
+        copy.put(parentId, parent.withChildIds(childIds));
+
+        rebuild(copy, categoryId, parent.path);
+        refreshItemsUpward(copy, parentId);
+
+        return new CategoryTree(copy);
+    }
+
+    /**
+     * 카테고리에 상품 추가
+     */
+    public CategoryTree withItem(Long categoryId, Long itemId) {
+        Node node = nodes.get(categoryId);
+        if (node == null) {
+            throw new IllegalArgumentException("카테고리가 없습니다. categoryId = " + categoryId);
+        }
+        if (node.itemIds.contains(itemId)) {
+            return this;
+        }
+
+        Set<Long> itemIds = new LinkedHashSet<>(node.itemIds);
+        itemIds.add(itemId);
+
+        Map<Long, Node> copy = new HashMap<>(nodes);
+        copy.put(categoryId, new Node(node.id, node.name, node.parentId, node.childIds, node.path, itemIds, node.subtreeItemIds));
+        refreshItemsUpward(copy, categoryId);
+
+        return new CategoryTree(copy);
+    }
+
+    // categoryId 아래 노드의 경로와 상품 목록을 다시 계산 (자식부터)
+    private static Set<Long> rebuild(Map<Long, Node> nodes, Long categoryId, List<Long> parentPath) {
+        Node node = nodes.get(categoryId);
+
+        List<Long> path = new ArrayList<>(parentPath);
+        path.add(categoryId);
+
+        Set<Long> subtreeItemIds = new LinkedHashSet<>(node.itemIds);
+        for (Long childId : node.childIds) {
+            subtreeItemIds.addAll(rebuild(nodes, childId, path));
+        }
+
+        Node rebuilt = new Node(node.id, node.name, node.parentId, node.childIds, path, node.itemIds, subtreeItemIds);
+        nodes.put(categoryId, rebuilt);
+        return rebuilt.subtreeItemIds;
+    }
+
+    // categoryId부터 루트까지 하위 상품 목록을 다시 계산 (자식 노드는 이미 계산된 값 사용)
+    private static void refreshItemsUpward(Map<Long, Node> nodes, Long categoryId) {
+        Long id = categoryId;
+
+        while (id != null) {
+            Node node = nodes.get(id);
+
+            Set<Long> subtreeItemIds = new LinkedHashSet<>(node.itemIds);
+            for (Long childId : node.childIds) {
+                subtreeItemIds.addAll(nodes.get(childId).subtreeItemIds);
+            }
+
+            nodes.put(id, new Node(node.id, node.name, node.parentId, node.childIds, node.path, node.itemIds, subtreeItemIds));
+            id = node.parentId;
+        }
+    }
+
+    @Getter
+    public static class Node {
+
+        private final Long id;
+        private final String name;
+        private final Long parentId;
+        private final List<Long> childIds;
+        private final List<Long> path;          // 루트 -> 자신
+        private final Set<Long> itemIds;        // 이 카테고리에 직접 등록된 상품
+        private final Set<Long> subtreeItemIds; // 하위 카테고리까지 포함 (중복 제외)
+
+        private Node(Long id, String name, Long parentId, List<Long> childIds, List<Long> path,
+                     Set<Long> itemIds, Set<Long> subtreeItemIds) {
+            this.id = id;
+            this.name = name;
+            this.parentId = parentId;
+            this.childIds = Collections.unmodifiableList(childIds);
+            this.path = Collections.unmodifiableList(path);
+            this.itemIds = Collections.unmodifiableSet(itemIds);
+            this.subtreeItemIds = Collections.unmodifiableSet(subtreeItemIds);
+        }
+
+        public int getSubtreeItemCount() {
+            return subtreeItemIds.size();
+        }
+
+        private Node withChildIds(List<Long> childIds) {
+            return new Node(id, name, parentId, childIds, path, itemIds, subtreeItemIds);
+        }
+    }
+}
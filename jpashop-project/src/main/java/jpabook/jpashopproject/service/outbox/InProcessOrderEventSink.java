@@ -0,0 +1,25 @@
+package jpabook.jpashopproject.service.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 로컬용 싱크 - 같은 JVM의 @EventListener(OrderEvent)로 전달
+ * 메시지 브로커 싱크가 생기기 전까지 대신 사용
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.outbox.in-process-sink", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class InProcessOrderEventSink implements OrderEventSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<OrderEvent> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
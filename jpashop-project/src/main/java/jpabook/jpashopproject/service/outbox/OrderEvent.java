@@ -0,0 +1,23 @@
+package jpabook.jpashopproject.service.outbox;
+
+import jpabook.jpashopproject.domain.outbox.OrderEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 싱크로 전달되는 주문 이벤트
+ * 최소 한번 전달 (at-least-once) -> 받는 쪽은 id로 중복을 걸러야 함
+ */
+@Data
+@AllArgsConstructor
+public class OrderEvent {
+
+    private Long id;
+    private Long orderId;
+    private OrderEventType type;
+    // JSON
+    private String payload;
+    private LocalDateTime createdAt;
+}
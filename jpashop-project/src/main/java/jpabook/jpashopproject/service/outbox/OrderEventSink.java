@@ -0,0 +1,15 @@
+package jpabook.jpashopproject.service.outbox;
+
+import java.util.List;
+
+/**
+ * 주문 이벤트를 받는 곳 (창고, 분석 시스템 등)
+ * 빈으로 등록하면 OrderOutboxRelay가 모든 싱크에 전달
+ * 예외를 던지면 실패한 이벤트부터 (같은 주문의 뒤 이벤트 포함) 다음 폴링에 다시 전달
+ * 릴레이의 트랜잭션 밖에서 호출됨 -> 필요하면 싱크가 자기 트랜잭션을 시작
+ */
+public interface OrderEventSink {
+
+    // events는 id 순 -> 같은 주문의 이벤트는 발생 순서대로 들어옴
+    void publish(List<OrderEvent> events);
+}
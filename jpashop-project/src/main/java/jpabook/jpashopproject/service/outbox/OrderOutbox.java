@@ -0,0 +1,84 @@
+package jpabook.jpashopproject.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashopproject.domain.Order;
+import jpabook.jpashopproject.domain.outbox.OrderEventType;
+import jpabook.jpashopproject.repository.OrderOutboxRepository;
+import jpabook.jpashopproject.repository.OrderOutboxRepository.NewEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 이벤트를 아웃박스에 기록 (OrderService의 트랜잭션 안에서 호출)
+ * 실제 전달은 OrderOutboxRelay가 커밋 이후에 비동기로
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutbox {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public void orderPlaced(Collection<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        orderOutboxRepository.saveAll(orders.stream()
+                .map(o -> new NewEvent(o.getId(), OrderEventType.ORDER_PLACED, toJson(OrderPlaced.of(o)), now))
+                .collect(Collectors.toList()));
+    }
+
+    public void orderCancelled(Collection<Long> orderIds) {
+        LocalDateTime now = LocalDateTime.now();
+        orderOutboxRepository.saveAll(orderIds.stream()
+                .map(id -> new NewEvent(id, OrderEventType.ORDER_CANCELLED, toJson(new OrderCancelled(id, now)), now))
+                .collect(Collectors.toList()));
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("주문 이벤트를 JSON으로 변환할 수 없습니다.", e);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class OrderPlaced {
+
+        private Long orderId;
+        private Long memberId;
+        private LocalDateTime orderDate;
+        private int totalPrice;
+        private List<Line> orderItems;
+
+        static OrderPlaced of(Order order) {
+            return new OrderPlaced(order.getId(), order.getMember().getId(), order.getOrderDate(), order.getTotalPrice(),
+                    order.getOrderItems().stream()
+                            .map(oi -> new Line(oi.getItem().getId(), oi.getOrderPrice(), oi.getCount()))
+                            .collect(Collectors.toList()));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Line {
+        private Long itemId;
+        private int orderPrice;
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class OrderCancelled {
+        private Long orderId;
+        private LocalDateTime cancelledAt;
+    }
+}
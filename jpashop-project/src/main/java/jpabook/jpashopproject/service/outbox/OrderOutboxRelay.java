@@ -0,0 +1,170 @@
+package jpabook.jpashopproject.service.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashopproject.repository.OrderOutboxRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * 아웃박스의 주문 이벤트를 batch로 읽어서 모든 싱크에 전달
+ * - 읽기, 전달, publishedAt 기록을 한 트랜잭션에서 -> 여러 서버가 동시에 돌아도 같은 이벤트를 동시에 보내지 않음
+ * - 싱크는 이 트랜잭션에 참여하지 않음 -> @Transactional 리스너가 예외를 던져도 실패 기록, publishedAt 기록은 롤백되지 않음
+ * - batch 전체 전달이 실패하면 한 건씩 다시 보내고, 실패한 주문의 뒤 이벤트는 보내지 않음 (주문별 순서 유지)
+ * 지표: jpashop.outbox.pending, jpashop.outbox.lag (가장 오래된 미전달 이벤트 나이),
+ *       jpashop.outbox.published, jpashop.outbox.failed, jpashop.outbox.delivery.delay
+ */
+@Slf4j
+@Component
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final List<OrderEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate deliveryTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+    private final Counter published;
+    private final Counter failed;
+    private final Timer deliveryDelay;
+
+    public OrderOutboxRelay(OrderOutboxRepository orderOutboxRepository,
+                            List<OrderEventSink> sinks,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${jpashop.outbox.batch-size:200}") int batchSize,
+                            @Value("${jpashop.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${jpashop.outbox.retention-hours:24}") int retentionHours) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveryTemplate = new TransactionTemplate(transactionManager);
+        this.deliveryTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofHours(retentionHours);
+
+        Gauge.builder("jpashop.outbox.pending", pending, AtomicLong::get)
+                .register(meterRegistry);
+        // 릴레이가 멈춰도 지연이 계속 늘어나도록 조회 시점에 계산
+        Gauge.builder("jpashop.outbox.lag", this, r -> r.lagSeconds())
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.published = Counter.builder("jpashop.outbox.published").register(meterRegistry);
+        this.failed = Counter.builder("jpashop.outbox.failed").register(meterRegistry);
+        this.deliveryDelay = Timer.builder("jpashop.outbox.delivery.delay").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.outbox.poll-interval-ms:500}")
+    public void relay() {
+        // batch가 가득 차면 바로 다음 batch, 실패가 있으면 다음 폴링까지 대기
+        // 싱크가 없으면 전달하지 않고 쌓아둠
+        while (!sinks.isEmpty()) {
+            Result result = transactionTemplate.execute(status -> relayBatch());
+            if (result.failed > 0 || result.read < batchSize) {
+                break;
+            }
+        }
+
+        OrderOutboxRepository.Backlog backlog = orderOutboxRepository.findBacklog();
+        pending.set(backlog.getPending());
+        oldestPending.set(backlog.getOldestCreatedAt());
+    }
+
+    private Result relayBatch() {
+        List<OrderEvent> events = orderOutboxRepository.findPendingForUpdate(batchSize, maxAttempts);
+        if (events.isEmpty()) {
+            return new Result(0, 0);
+        }
+
+        List<OrderEvent> delivered = new ArrayList<>(events.size());
+        int failures = 0;
+        try {
+            deliver(events);
+            delivered.addAll(events);
+        } catch (RuntimeException batchFailure) {
+            Set<Long> blockedOrders = new HashSet<>();
+            for (OrderEvent event : events) {
+                if (blockedOrders.contains(event.getOrderId())) {
+                    continue;
+                }
+                try {
+                    deliver(List.of(event));
+                    delivered.add(event);
+                } catch (RuntimeException e) {
+                    failures++;
+                    blockedOrders.add(event.getOrderId());
+                    orderOutboxRepository.recordFailure(event.getId(), abbreviate(String.valueOf(e)));
+                    log.warn("주문 이벤트 전달 실패 id = {}, orderId = {}", event.getId(), event.getOrderId(), e);
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        orderOutboxRepository.markPublished(
+                delivered.stream().map(OrderEvent::getId).collect(Collectors.toList()), now);
+
+        published.increment(delivered.size());
+        failed.increment(failures);
+        delivered.forEach(e -> deliveryDelay.record(Duration.between(e.getCreatedAt(), now)));
+
+        return new Result(events.size(), failures);
+    }
+
+    // 락을 잡은 트랜잭션은 잠시 멈추고 전달 (row 락은 그대로 유지)
+    // 싱크가 트랜잭션에 참여하면 실패 시 rollback-only가 되어 같은 이벤트가 계속 막힘
+    private void deliver(List<OrderEvent> events) {
+        deliveryTemplate.executeWithoutResult(status -> {
+            for (OrderEventSink sink : sinks) {
+                sink.publish(events);
+            }
+        });
+    }
+
+    // 전달한 이벤트는 보관 기간이 지나면 삭제
+    @Scheduled(fixedDelayString = "${jpashop.outbox.cleanup-interval-ms:3600000}")
+    public void cleanUp() {
+        int deleted = transactionTemplate.execute(status ->
+                orderOutboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted > 0) {
+            log.debug("전달한 주문 이벤트 삭제 {}", deleted);
+        }
+    }
+
+    double lagSeconds() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    @AllArgsConstructor
+    private static class Result {
+        private final int read;
+        private final int failed;
+    }
+}
@@ -0,0 +1,149 @@
+package jpabook.jpashopproject.service.stock;
+
+import jpabook.jpashopproject.repository.StockLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 인기 상품 재고 원장
+ * 주문이 한 상품에 몰리면 item row 하나에 update가 몰려서 병목이 됨
+ * -> 재고를 JVM 안의 여러 카운터(StripedStock)로 나눠서 락 없이 차감하고
+ *    item 테이블에는 StockLedgerFlusher가 모아서 주기적으로 반영 (write-behind)
+ *
+ * 반영되지 않은 수량은 주문 상품의 pendingStock으로 주문과 같은 트랜잭션에 저장됨
+ * -> item.stockQuantity + sum(pendingStock) = 실제 재고 (서버가 죽어도 DB에서 복구 가능)
+ * 서버 한 대 기준 (여러 대라면 상품마다 원장을 가진 서버를 하나로 정해야 함)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockLedger {
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final Map<Long, StripedStock> stocks = new ConcurrentHashMap<>();
+
+    @Value("${jpashop.stock-ledger.stripes:16}")
+    private int stripes;
+
+    public boolean isTracked(Long itemId) {
+        return stocks.containsKey(itemId);
+    }
+
+    public int available(Long itemId) {
+        StripedStock stock = stocks.get(itemId);
+        return stock == null ? 0 : stock.available();
+    }
+
+    /**
+     * DB 기준으로 원장을 채움 (서버 시작 시)
+     * 주문을 받는 중에 다시 채우면 커밋 전인 차감이 사라짐 -> 재고 수정은 adjustAfterCommit으로
+     */
+    public void load(Long itemId) {
+        Optional<Integer> available = stockLedgerRepository.findAvailableStock(itemId);
+        if (available.isEmpty()) {
+            log.warn("재고 원장에 등록할 상품이 없습니다. itemId = {}", itemId);
+            return;
+        }
+
+        stocks.put(itemId, new StripedStock(stripes, available.get()));
+        log.info("재고 원장 등록 itemId = {}, stock = {}", itemId, available.get());
+    }
+
+    /**
+     * 관리자가 재고를 바꿨을 때 - 원장을 새로 만들지 않고 바뀐 만큼만 더하거나 뺌
+     * 그 사이에 차감, 반환된 수량은 그대로 남음
+     */
+    public void adjustAfterCommit(Long itemId, int delta) {
+        if (delta == 0 || !isTracked(itemId)) {
+            return;
+        }
+
+        afterCommit(() -> {
+            StripedStock stock = stocks.get(itemId);
+            if (stock != null) {
+                stock.adjust(delta);
+            }
+        });
+    }
+
+    /**
+     * 재고 차감 - 주문 트랜잭션이 롤백되면 차감한 만큼 돌려줌
+     */
+    public void reserve(Long itemId, int quantity) {
+        StripedStock stock = stocks.get(itemId);
+        stock.reserve(quantity);
+
+        releaseOnRollback(stock, quantity);
+    }
+
+    /**
+     * 여러 상품 재고 차감 - 하나라도 모자라면 앞에서 차감한 상품도 바로 돌려줌
+     */
+    public void reserveAll(Map<Long, Integer> quantities) {
+        List<Map.Entry<StripedStock, Integer>> reserved = new ArrayList<>();
+
+        try {
+            quantities.forEach((itemId, quantity) -> {
+                StripedStock stock = stocks.get(itemId);
+                stock.reserve(quantity);
+                reserved.add(Map.entry(stock, quantity));
+            });
+        } catch (RuntimeException e) {
+            reserved.forEach(r -> r.getKey().release(r.getValue()));
+            throw e;
+        }
+
+        reserved.forEach(r -> releaseOnRollback(r.getKey(), r.getValue()));
+    }
+
+    /**
+     * 재고 반환 (주문 취소) - 커밋된 다음에 돌려줌
+     */
+    public void release(Long itemId, int quantity) {
+        afterCommit(() -> {
+            StripedStock stock = stocks.get(itemId);
+            if (stock != null) {
+                stock.release(quantity);
+            }
+        });
+    }
+
+    private void releaseOnRollback(StripedStock stock, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    stock.release(quantity);
+                }
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
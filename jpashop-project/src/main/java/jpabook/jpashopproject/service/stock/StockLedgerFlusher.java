@@ -0,0 +1,74 @@
+package jpabook.jpashopproject.service.stock;
+
+import jpabook.jpashopproject.repository.StockLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 재고 원장에서 차감한 수량(pendingStock)을 item 테이블에 주기적으로 반영
+ * 서버 시작 시에는 이전 실행에서 반영하지 못한 수량을 먼저 반영하고 원장을 DB 기준으로 채움
+ */
+@Slf4j
+@Component
+public class StockLedgerFlusher implements SmartInitializingSingleton {
+
+    private final StockLedger stockLedger;
+    private final StockLedgerRepository stockLedgerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Long> hotItemIds;
+    private final int batchSize;
+
+    public StockLedgerFlusher(StockLedger stockLedger,
+                              StockLedgerRepository stockLedgerRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${jpashop.stock-ledger.hot-item-ids:}") List<Long> hotItemIds,
+                              @Value("${jpashop.stock-ledger.flush-batch-size:500}") int batchSize) {
+        this.stockLedger = stockLedger;
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotItemIds = hotItemIds;
+        this.batchSize = batchSize;
+    }
+
+    // 모든 빈이 준비된 뒤, 웹 요청을 받기 전에 실행됨
+    @Override
+    public void afterSingletonsInstantiated() {
+        int recovered = flushAll();
+        if (recovered > 0) {
+            log.info("반영되지 않은 재고 복구 orderItems = {}", recovered);
+        }
+
+        hotItemIds.forEach(stockLedger::load);
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.stock-ledger.flush-interval-ms:1000}")
+    public void flush() {
+        if (hotItemIds.isEmpty()) {
+            return;
+        }
+
+        int flushed = flushAll();
+        if (flushed > 0) {
+            log.debug("재고 반영 orderItems = {}", flushed);
+        }
+    }
+
+    private int flushAll() {
+        int total = 0;
+        while (true) {
+            Integer flushed = transactionTemplate.execute(status -> stockLedgerRepository.flushPendingStock(batchSize));
+            total += flushed;
+
+            if (flushed < batchSize) {
+                return total;
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package jpabook.jpashopproject.service.stock;
+
+import jpabook.jpashopproject.exception.NotEnoughStockException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 상품 하나의 재고를 여러 칸(stripe)으로 나눈 카운터
+ * 스레드마다 다른 칸에서 CAS로 차감 -> 한 칸에 경합이 몰리지 않음
+ * 칸끼리 같은 캐시 라인을 쓰지 않도록 PADDING 간격으로 배치
+ */
+final class StripedStock {
+
+    private static final int PADDING = 16; // int 16개 = 64 byte
+
+    private final int stripes;
+    private final AtomicIntegerArray cells;
+
+    StripedStock(int stripes, int quantity) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PADDING);
+
+        int total = Math.max(quantity, 0);
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PADDING, total / stripes + (i < total % stripes ? 1 : 0));
+        }
+    }
+
+    /**
+     * 한 칸에 재고가 모자라면 다음 칸에서 이어서 가져옴
+     * 전체가 모자라면 가져온 만큼 되돌리고 예외
+     */
+    void reserve(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        int[] taken = new int[stripes];
+        int remaining = quantity;
+
+        for (int n = 0; n < stripes && remaining > 0; n++) {
+            int stripe = (start + n) % stripes;
+            int got = take(stripe, remaining);
+            taken[stripe] = got;
+            remaining -= got;
+        }
+
+        if (remaining > 0) {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (taken[stripe] > 0) {
+                    cells.addAndGet(stripe * PADDING, taken[stripe]);
+                }
+            }
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    void release(int quantity) {
+        cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+    }
+
+    /**
+     * 재고를 줄일 때는 남은 만큼만 뺌 (이미 차감된 주문은 되돌리지 않음)
+     */
+    void adjust(int delta) {
+        if (delta >= 0) {
+            release(delta);
+            return;
+        }
+
+        int remaining = -delta;
+        for (int stripe = 0; stripe < stripes && remaining > 0; stripe++) {
+            remaining -= take(stripe, remaining);
+        }
+    }
+
+    int available() {
+        int sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private int take(int stripe, int max) {
+        int index = stripe * PADDING;
+        while (true) {
+            int current = cells.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+
+            int got = Math.min(current, max);
+            if (cells.compareAndSet(index, current, current - got)) {
+                return got;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package jpabook.jpashopproject.api;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /api/v5.1/orders - 동시 요청이 커넥션 풀보다 많아도 커넥션 타임아웃 없이 끝나야 함
+ * 풀 4개, 작업 스레드 2개, 주문 하나씩 조회(InitDb 주문 2개 -> 요청당 2번)
+ * 요청 스레드가 커넥션을 잡은 채로 기다리면 요청 4개가 풀을 다 쓰고 작업 스레드는 타임아웃
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=3000",
+        "jpashop.order-query.chunk-size=1",
+        "jpashop.order-query.parallelism=2"})
+@AutoConfigureMockMvc
+class OrderApiConcurrencyTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    void 나눠서_조회_동시요청() throws Exception {
+        int requests = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(MockMvcRequestBuilders.get("/api/v5.1/orders"))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> status : statuses) {
+                Assertions.assertThat(status.get(20, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
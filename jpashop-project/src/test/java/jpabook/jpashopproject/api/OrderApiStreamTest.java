@@ -0,0 +1,49 @@
+package jpabook.jpashopproject.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashopproject.repository.order.query.OrderQueryJdbcRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * /api/v3.3/orders - 주문을 쓰는 중에 실패하면 클라이언트가 마지막 페이지로 오해하지 않도록 깨진 JSON으로 끝나야 함
+ */
+@SpringBootTest
+class OrderApiStreamTest {
+
+    @Autowired OrderApiController orderApiController;
+    @Autowired ObjectMapper objectMapper;
+    @MockBean OrderQueryJdbcRepository orderQueryJdbcRepository;
+
+    @Test
+    void 스트리밍_중_실패하면_닫히지_않은_JSON() throws Exception {
+        // 주문 하나를 쓰다가 커넥션이 끊김
+        Mockito.doAnswer(invocation -> {
+            JsonGenerator generator = invocation.getArgument(3);
+            generator.writeStartObject();
+            generator.writeNumberField("orderId", 1L);
+            throw new DataAccessResourceFailureException("connection lost");
+        }).when(orderQueryJdbcRepository).writeOrdersAfter(
+                ArgumentMatchers.any(), ArgumentMatchers.anyInt(), ArgumentMatchers.anyInt(), ArgumentMatchers.any());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        Assertions.assertThatThrownBy(() -> orderApiController.ordersV3_stream(null, 10, response))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        String body = response.getContentAsString();
+        Assertions.assertThat(body).startsWith("{\"data\":[{\"orderId\":1");
+        Assertions.assertThat(body).doesNotContain("next");
+        Assertions.assertThatThrownBy(() -> objectMapper.readTree(body))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+}
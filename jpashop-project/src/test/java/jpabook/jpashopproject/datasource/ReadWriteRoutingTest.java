@@ -0,0 +1,81 @@
+package jpabook.jpashopproject.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jpabook.jpashopproject.repository.MemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// application-routing.yml (H2 두 풀) 기준
+// 스케줄러(지연 확인, 아웃박스 릴레이)가 풀을 사용하지 않도록 주기를 길게 두고 지연 확인은 직접 호출
+@SpringBootTest(properties = {
+        "jpashop.datasource.replica-lag.check-interval-ms=3600000",
+        "jpashop.outbox.poll-interval-ms=3600000"})
+@ActiveProfiles("routing")
+class ReadWriteRoutingTest {
+
+    @Autowired @Qualifier("primaryDataSource") HikariDataSource primary;
+    @Autowired @Qualifier("replicaDataSource") HikariDataSource replica;
+    @Autowired ReplicaLagMonitor replicaLagMonitor;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeEach
+    void setUp() {
+        // heartbeat를 쓰고 바로 replica에서 읽음 (같은 H2 -> 지연 0)
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    void 읽기전용_트랜잭션은_replica() {
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+
+        assertEquals(DataSourceType.REPLICA, routedTo(true));
+        assertEquals(DataSourceType.PRIMARY, routedTo(false));
+    }
+
+    @Test
+    void 같은_요청에서_쓰기_후에는_primary() {
+        PrimaryPinning.begin();
+        try {
+            assertEquals(DataSourceType.REPLICA, routedTo(true));
+            assertEquals(DataSourceType.PRIMARY, routedTo(false));
+            assertEquals(DataSourceType.PRIMARY, routedTo(true), "쓰기 이후 읽기는 primary에서");
+        } finally {
+            PrimaryPinning.end();
+        }
+
+        assertEquals(DataSourceType.REPLICA, routedTo(true), "요청이 끝나면 다시 replica");
+    }
+
+    @Test
+    void 지연을_확인하지_못하면_primary() {
+        ReplicaLagMonitor unchecked = new ReplicaLagMonitor(primary, replica, 1000, 1000, new SimpleMeterRegistry());
+
+        assertFalse(unchecked.isReplicaUsable(), "확인 전에는 replica를 사용하지 않는다.");
+    }
+
+    // 트랜잭션 안에서 쿼리를 실행하고 커넥션을 빌려간 풀을 확인
+    private DataSourceType routedTo(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+
+        return template.execute(status -> {
+            memberRepository.findAll();
+
+            int primaryActive = primary.getHikariPoolMXBean().getActiveConnections();
+            int replicaActive = replica.getHikariPoolMXBean().getActiveConnections();
+            assertEquals(1, primaryActive + replicaActive, "커넥션은 한 풀에서만 가져온다.");
+
+            return replicaActive == 1 ? DataSourceType.REPLICA : DataSourceType.PRIMARY;
+        });
+    }
+}
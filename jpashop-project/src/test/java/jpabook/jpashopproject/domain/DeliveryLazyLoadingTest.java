@@ -0,0 +1,84 @@
+package jpabook.jpashopproject.domain;
+
+import jpabook.jpashopproject.domain.item.Book;
+import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 바이트코드 향상 전후 배송 조회 쿼리 수
+ * 향상 x (-PhibernateEnhance=false): 배송 + 주문 2번 / 향상 o: 배송 1번, getOrder() 때 주문
+ */
+@SpringBootTest
+@Transactional
+class DeliveryLazyLoadingTest {
+
+    @Autowired EntityManager em;
+
+    Statistics statistics;
+    boolean statisticsEnabled;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    // 통계는 세션 팩토리 전체 설정 -> 같은 컨텍스트를 쓰는 다른 테스트를 위해 원래대로
+    @AfterEach
+    void restoreStatistics() {
+        statistics.setStatisticsEnabled(statisticsEnabled);
+    }
+
+    @Test
+    void 배송_조회시_주문은_필요할때_조회() {
+        Long deliveryId = createOrder().getDelivery().getId();
+        em.flush();
+        em.clear();
+
+        boolean enhanced = PersistentAttributeInterceptable.class.isAssignableFrom(Delivery.class);
+        statistics.clear();
+
+        Delivery delivery = em.find(Delivery.class, deliveryId);
+
+        // 향상 o -> 배송만 조회, 향상 x -> 주문도 함께 조회
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(enhanced ? 1 : 2);
+
+        if (enhanced) {
+            Assertions.assertThat(Hibernate.isPropertyInitialized(delivery, "order")).isFalse();
+            Assertions.assertThat(delivery.getOrder().getId()).isNotNull();
+            Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        }
+    }
+
+    private Order createOrder() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), 1));
+        em.persist(order);
+        return order;
+    }
+}
@@ -0,0 +1,90 @@
+package jpabook.jpashopproject.jpa;
+
+import jpabook.jpashopproject.domain.Member;
+import jpabook.jpashopproject.service.MemberService;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// OSIV 요청 하나를 인터셉터로 직접 열고 닫음 (트랜잭션은 서비스에서)
+@SpringBootTest
+class ReadOnlySessionTest {
+
+    @Autowired EntityManagerFactory emf;
+    @Autowired MemberService memberService;
+    @Autowired ReadOnlyEntityManagerInViewInterceptor interceptor;
+
+    ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+    Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        Member member = new Member();
+        member.setName("회원-" + UUID.randomUUID());
+        memberId = memberService.join(member);
+
+        interceptor.preHandle(request);
+    }
+
+    // 서비스 트랜잭션으로 커밋된 회원 -> 테스트가 끝나면 직접 삭제
+    @AfterEach
+    void tearDown() {
+        interceptor.afterCompletion(request, null);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.remove(em.find(Member.class, memberId));
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Test
+    void 조회한_엔티티는_스냅샷_없이_읽기전용() {
+        Member member = memberService.findOne(memberId);
+
+        Session session = session();
+        assertTrue(session.isReadOnly(member), "읽기 전용 트랜잭션에서 읽은 엔티티는 읽기 전용");
+        assertTrue(session.isDefaultReadOnly(), "트랜잭션이 끝나도 OSIV Session은 읽기 전용");
+        assertEquals(FlushMode.MANUAL, session.getHibernateFlushMode());
+    }
+
+    @Test
+    void 읽기전용으로_읽은_엔티티도_쓰기_트랜잭션에서는_변경감지() {
+        Member member = memberService.findOne(memberId);
+
+        memberService.update(memberId, "변경된 이름");
+
+        assertFalse(session().isReadOnly(member));
+        assertTrue(session().isDefaultReadOnly());
+
+        // 새 EntityManager로 DB 값 확인
+        EntityManager em = emf.createEntityManager();
+        try {
+            assertEquals("변경된 이름", em.find(Member.class, memberId).getName());
+        } finally {
+            em.close();
+        }
+    }
+
+    private Session session() {
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+        return holder.getEntityManager().unwrap(Session.class);
+    }
+}
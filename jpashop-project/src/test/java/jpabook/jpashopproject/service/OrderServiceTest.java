@@ -1,34 +1,40 @@
 package jpabook.jpashopproject.service;
 
 import jpabook.jpashopproject.domain.Address;
+import jpabook.jpashopproject.domain.Delivery;
 import jpabook.jpashopproject.domain.Member;
 import jpabook.jpashopproject.domain.Order;
+import jpabook.jpashopproject.domain.OrderItem;
 import jpabook.jpashopproject.domain.OrderStatus;
 import jpabook.jpashopproject.domain.item.Book;
 import jpabook.jpashopproject.exception.NotEnoughStockException;
 import jpabook.jpashopproject.repository.OrderRepository;
-import org.junit.Test;
-import org.junit.runner.RunWith;
+import jpabook.jpashopproject.repository.report.ItemSalesDto;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
 
-import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.*;
 
-@RunWith(SpringRunner.class)
 @SpringBootTest
 @Transactional
-public class OrderServiceTest {
+class OrderServiceTest {
 
     @Autowired EntityManager em;
     @Autowired OrderService orderService;
     @Autowired OrderRepository orderRepository;
+    @Autowired SalesReportService salesReportService;
 
     @Test
-    public void 상품주문() {
+    void 상품주문() {
         Member member = createMember("회원1", new Address("서울", "강가", "123-123"));
         Book book = createBook("시골 JPA", 10000, 10);
 
@@ -38,25 +44,25 @@ public class OrderServiceTest {
 
         Order getOrder = orderRepository.findOne(orderId);
 
-        assertEquals("상품 주문 시 상태는 ORDER", OrderStatus.ORDER, getOrder.getStatus());
-        assertEquals("주문한 상품 종류 수가 정확해야 한다.", 1, getOrder.getOrderItems().size());
-        assertEquals("주문 가격은 주문 * 수량이다.", 10000 * 2, getOrder.getTotalPrice());
-        assertEquals("주문 수량만큼 재고가 줄어야 한다.", 8, book.getStockQuantity());
+        assertEquals(OrderStatus.ORDER, getOrder.getStatus(), "상품 주문 시 상태는 ORDER");
+        assertEquals(1, getOrder.getOrderItems().size(), "주문한 상품 종류 수가 정확해야 한다.");
+        assertEquals(10000 * 2, getOrder.getTotalPrice(), "주문 가격은 주문 * 수량이다.");
+        assertEquals(8, book.getStockQuantity(), "주문 수량만큼 재고가 줄어야 한다.");
     }
 
     @Test
-    public void 주문_재고수량_초과() {
+    void 주문_재고수량_초과() {
         Member member = createMember("회원1", new Address("서울", "강가", "123-123"));
         Book book = createBook("시골 JPA", 10000, 10);
 
         int orderCount = 11;
 
-        assertThrows("재고량을 초과하여 주문하면 예외 발생", NotEnoughStockException.class,
-                () -> orderService.order(member.getId(), book.getId(), orderCount));
+        assertThrows(NotEnoughStockException.class,
+                () -> orderService.order(member.getId(), book.getId(), orderCount), "재고량을 초과하여 주문하면 예외 발생");
     }
 
     @Test
-    public void 주문취소() {
+    void 주문취소() {
         Member member = createMember("회원1", new Address("서울", "강가", "123-123"));
         Book book = createBook("시골 JPA", 10000, 10);
 
@@ -67,8 +73,124 @@ public class OrderServiceTest {
 
         Order getOrder = orderRepository.findOne(orderId);
 
-        assertEquals("주문 최소 시 상태는 CANCEL", OrderStatus.CANCEL, getOrder.getStatus());
-        assertEquals("재고가 취소된 수량만큼 늘어나야 한다.", 10, book.getStockQuantity());
+        assertEquals(OrderStatus.CANCEL, getOrder.getStatus(), "주문 최소 시 상태는 CANCEL");
+        assertEquals(10, book.getStockQuantity(), "재고가 취소된 수량만큼 늘어나야 한다.");
+    }
+
+    @Test
+    void 대량주문_일부실패() {
+        Member member = createMember("회원1", new Address("서울", "강가", "123-123"));
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        List<BulkOrderRequest> requests = List.of(
+                new BulkOrderRequest(member.getId(), List.of(new BulkOrderRequest.OrderLine(book.getId(), 3))),
+                new BulkOrderRequest(member.getId(), List.of(
+                        new BulkOrderRequest.OrderLine(book.getId(), 3),
+                        new BulkOrderRequest.OrderLine(book.getId(), 5))),
+                new BulkOrderRequest(member.getId(), List.of(new BulkOrderRequest.OrderLine(book.getId(), 2))));
+
+        List<BulkOrderResult> results = orderService.orderBulk(requests);
+
+        assertNotNull(results.get(0).getOrderId());
+        assertNull(results.get(1).getOrderId(), "재고를 초과한 주문만 실패해야 한다.");
+        assertNotNull(results.get(2).getOrderId());
+        assertEquals(5, book.getStockQuantity(), "성공한 주문 수량만큼만 재고가 줄어야 한다.");
+    }
+
+    @Test
+    void 주문_일괄취소() {
+        Member member = createMember("회원1", new Address("서울", "강가", "123-123"));
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 2);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 3);
+
+        List<Long> cancelled = orderService.cancelBulk(List.of(orderId1, orderId2, -1L));
+
+        assertEquals(List.of(orderId1, orderId2), cancelled, "취소 가능한 주문만 취소된다.");
+        assertEquals(OrderStatus.CANCEL, orderRepository.findOne(orderId1).getStatus(), "주문 최소 시 상태는 CANCEL");
+        assertEquals(10, book.getStockQuantity(), "재고가 취소된 수량만큼 늘어나야 한다.");
+        assertTrue(orderService.cancelBulk(List.of(orderId1)).isEmpty(), "이미 취소된 주문은 다시 취소되지 않는다.");
+        assertEquals(10, book.getStockQuantity(), "재고는 한번만 돌아온다.");
+    }
+
+    @Test
+    void 판매집계_주문_취소() {
+        Member member = createMember("회원1", new Address("서울", "강가", "123-123"));
+        Book book = createBook("시골 JPA", 10000, 10);
+
+        orderService.order(member.getId(), book.getId(), 2);
+        Long canceled = orderService.order(member.getId(), book.getId(), 3);
+        orderService.cancel(canceled);
+
+        ItemSalesDto sales = findSales(book.getId());
+        assertEquals(2, sales.getQuantity(), "취소한 주문은 집계에서 빠져야 한다.");
+        assertEquals(10000 * 2, sales.getRevenue());
+
+        em.flush();
+        salesReportService.rebuild();
+
+        ItemSalesDto rebuilt = findSales(book.getId());
+        assertEquals(sales, rebuilt, "다시 만든 집계는 증감한 집계와 같아야 한다.");
+    }
+
+    @Test
+    void 주문_쿼리수는_회원_주문이력과_무관() {
+        Book book = createBook("시골 JPA", 10000, 1000);
+
+        long[] small = readsForOrder(book, 0);
+        long[] large = readsForOrder(book, 200);
+
+        assertArrayEquals(small, large, "이전 주문이 많아도 주문할 때 읽는 양은 같아야 한다.");
+        assertEquals(0, large[1], "회원의 주문 목록을 읽지 않는다.");
+    }
+
+    // 이전 주문 history개를 가진 회원이 주문할 때 {엔티티 로딩, 컬렉션 로딩, 쿼리 실행} 수
+    // insert, 식별자 블록 조회는 다른 테스트가 쓴 식별자에 따라 달라지므로 제외
+    private long[] readsForOrder(Book book, int history) {
+        Member member = createMember("회원" + history, new Address("서울", "강가", "123-123"));
+        for (int i = 0; i < history; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            em.persist(Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), 1)));
+        }
+        em.flush();
+        em.clear();
+
+        // 통계는 세션 팩토리 전체 설정 -> 같은 컨텍스트를 쓰는 다른 테스트를 위해 원래대로
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        Long orderId;
+        long[] reads;
+        try {
+            orderId = orderService.order(member.getId(), book.getId(), 1);
+            em.flush();
+
+            reads = new long[]{
+                    statistics.getEntityLoadCount(),
+                    statistics.getCollectionLoadCount(),
+                    statistics.getQueryExecutionCount()};
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+
+        Member loaded = orderRepository.findOne(orderId).getMember();
+        assertFalse(Hibernate.isInitialized(loaded.getOrders()));
+        assertEquals(history + 1, loaded.getOrders().size());
+
+        em.clear();
+        return reads;
+    }
+
+    private ItemSalesDto findSales(Long itemId) {
+        LocalDate today = LocalDate.now();
+        return salesReportService.findTopSellers(today, today, 100).stream()
+                .filter(s -> s.getItemId().equals(itemId))
+                .findFirst()
+                .orElseThrow();
     }
 
     private Member createMember(String name, Address address) {
@@ -0,0 +1,48 @@
+package jpabook.jpashopproject.service.category;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class CategoryTreeTest {
+
+    @Test
+    void 트리_조회() {
+        // given - 1 > 2 > 3, 상품 10은 1과 3에 중복 등록
+        CategoryTree tree = CategoryTree.of(List.of(
+                new Object[]{1L, "도서", null, 10L},
+                new Object[]{2L, "IT", 1L, 20L},
+                new Object[]{3L, "JPA", 2L, 10L},
+                new Object[]{3L, "JPA", 2L, 30L},
+                new Object[]{4L, "음반", null, null}));
+
+        // then
+        Assertions.assertThat(tree.find(3L).get().getPath()).containsExactly(1L, 2L, 3L);
+        Assertions.assertThat(tree.itemIdsUnder(1L)).containsExactlyInAnyOrder(10L, 20L, 30L);
+        Assertions.assertThat(tree.find(2L).get().getSubtreeItemCount()).isEqualTo(3);
+        Assertions.assertThat(tree.itemIdsUnder(4L)).isEmpty();
+        Assertions.assertThat(tree.roots()).hasSize(2);
+    }
+
+    @Test
+    void 카테고리_이동_상품_추가() {
+        // given
+        CategoryTree tree = CategoryTree.of(List.of(
+                new Object[]{1L, "도서", null, null},
+                new Object[]{2L, "IT", 1L, 20L},
+                new Object[]{4L, "음반", null, null}));
+
+        // when
+        CategoryTree moved = tree.withCategory(2L, "IT", 4L)
+                .withItem(4L, 40L);
+
+        // then
+        Assertions.assertThat(moved.itemIdsUnder(1L)).isEmpty();
+        Assertions.assertThat(moved.itemIdsUnder(4L)).containsExactlyInAnyOrder(20L, 40L);
+        Assertions.assertThat(moved.find(2L).get().getPath()).containsExactly(4L, 2L);
+        Assertions.assertThat(tree.itemIdsUnder(1L)).containsExactly(20L); // 기존 트리는 그대로
+        Assertions.assertThatThrownBy(() -> moved.withCategory(4L, "음반", 2L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashopproject.service.outbox;
+
+import jpabook.jpashopproject.domain.Address;
+import jpabook.jpashopproject.domain.Member;
+import jpabook.jpashopproject.domain.item.Book;
+import jpabook.jpashopproject.domain.outbox.OrderEventType;
+import jpabook.jpashopproject.repository.OrderOutboxRepository;
+import jpabook.jpashopproject.service.OrderService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@Transactional
+@RecordApplicationEvents
+class OrderOutboxRelayTest {
+
+    @Autowired EntityManager em;
+    @Autowired OrderService orderService;
+    @Autowired OrderOutboxRelay orderOutboxRelay;
+    @Autowired OrderOutboxRepository orderOutboxRepository;
+    @Autowired ApplicationEvents applicationEvents;
+
+    @Test
+    void 주문_취소_이벤트_순서대로_전달() {
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        orderService.cancel(orderId);
+
+        orderOutboxRelay.relay();
+
+        List<OrderEventType> types = applicationEvents.stream(OrderEvent.class)
+                .filter(e -> e.getOrderId().equals(orderId))
+                .map(OrderEvent::getType)
+                .collect(Collectors.toList());
+
+        // 주문 이벤트는 발생 순서대로 전달
+        Assertions.assertThat(types).containsExactly(OrderEventType.ORDER_PLACED, OrderEventType.ORDER_CANCELLED);
+        // 전달한 이벤트는 다시 읽지 않음
+        Assertions.assertThat(orderOutboxRepository.findPendingForUpdate(100, 10)).isEmpty();
+    }
+}